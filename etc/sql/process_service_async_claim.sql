@@ -0,0 +1,7 @@
+-- Claims on pending async work items (wih.async.*). The sweep of each instance only dispatches the work items
+-- it claimed, and a claim is only taken over once its lease (wih.async.stale-after-ms) has run out.
+CREATE TABLE IF NOT EXISTS process_service_async_claim (
+    workitemid bigint NOT NULL,
+    claimed_until timestamptz NOT NULL,
+    CONSTRAINT process_service_async_claim_pkey PRIMARY KEY (workitemid)
+);
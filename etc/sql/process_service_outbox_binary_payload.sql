@@ -0,0 +1,3 @@
+ALTER TABLE process_service_outbox ADD COLUMN IF NOT EXISTS payload_bytes bytea;
+ALTER TABLE process_service_outbox ADD COLUMN IF NOT EXISTS payload_encoding varchar(32);
+ALTER TABLE process_service_outbox ALTER COLUMN payload DROP NOT NULL;
@@ -0,0 +1 @@
+ALTER TABLE process_service_outbox ADD COLUMN IF NOT EXISTS ce_processid varchar(255);
@@ -0,0 +1,25 @@
+-- Outbox table for outbox.mode=relay. Rows are kept until the in-process relay has published them,
+-- and the table is partitioned by day (UTC) so that cleanup is a partition drop. Partitions are created
+-- and dropped by the relay (outbox.relay.partitions.*). The default partition takes the rows written
+-- before the relay created the partition of their day, e.g. right after the first deployment.
+CREATE TABLE IF NOT EXISTS process_service_outbox (
+    id uuid NOT NULL,
+    aggregatetype varchar(255) NOT NULL,
+    aggregateid varchar(255) NOT NULL,
+    type varchar(255) NOT NULL,
+    payload text,
+    payload_bytes bytea,
+    payload_encoding varchar(32),
+    ce_specversion varchar(255) NOT NULL,
+    ce_source varchar(255) NOT NULL,
+    ce_time varchar(255) NOT NULL,
+    ce_datacontenttype varchar(255) NOT NULL,
+    ce_incidentid varchar(255),
+    ce_processid varchar(255),
+    created_at timestamptz NOT NULL,
+    CONSTRAINT process_service_outbox_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE IF NOT EXISTS process_service_outbox_default PARTITION OF process_service_outbox DEFAULT;
+
+CREATE INDEX IF NOT EXISTS process_service_outbox_created_at_idx ON process_service_outbox (created_at);
@@ -0,0 +1,7 @@
+-- Insertion order of the outbox events for outbox.mode=relay. created_at has millisecond precision and the id is random,
+-- so the relay orders the events of an aggregate by seq.
+CREATE SEQUENCE IF NOT EXISTS process_service_outbox_seq;
+
+ALTER TABLE process_service_outbox ADD COLUMN IF NOT EXISTS seq bigint NOT NULL DEFAULT nextval('process_service_outbox_seq');
+
+CREATE INDEX IF NOT EXISTS process_service_outbox_seq_idx ON process_service_outbox (seq);
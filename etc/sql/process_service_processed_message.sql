@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS process_service_processed_message (
+    id varchar(255) NOT NULL,
+    processed_at timestamptz NOT NULL,
+    CONSTRAINT process_service_processed_message_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS process_service_processed_message_processed_at_idx ON process_service_processed_message (processed_at);
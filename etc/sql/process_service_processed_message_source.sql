@@ -0,0 +1,2 @@
+-- processed message ids are keyed on the CloudEvent source and id
+ALTER TABLE process_service_processed_message ALTER COLUMN id TYPE varchar(1024);
@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS process_service_retry_parked (
+    id bigserial NOT NULL,
+    topic varchar(255) NOT NULL,
+    record_key varchar(255) NOT NULL,
+    event_id varchar(1024) NOT NULL,
+    parked_at timestamptz NOT NULL,
+    CONSTRAINT process_service_retry_parked_pkey PRIMARY KEY (id),
+    CONSTRAINT process_service_retry_parked_event_uk UNIQUE (topic, record_key, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS process_service_retry_parked_key_idx ON process_service_retry_parked (topic, record_key, id);
+
+CREATE INDEX IF NOT EXISTS process_service_retry_parked_parked_at_idx ON process_service_retry_parked (parked_at);
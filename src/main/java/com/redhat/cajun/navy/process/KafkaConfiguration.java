@@ -1,20 +1,48 @@
 package com.redhat.cajun.navy.process;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.dedup.MessageDeduplicator;
+import com.redhat.cajun.navy.process.message.dispatch.HeaderFilteringCloudEventDeserializer;
+import com.redhat.cajun.navy.process.message.dispatch.KeyOrderedDispatcher;
+import com.redhat.cajun.navy.process.message.dispatch.PartialBatchErrorHandler;
+import com.redhat.cajun.navy.process.message.listeners.IncidentReportedEventMessageListener;
+import com.redhat.cajun.navy.process.message.listeners.MissionEventTopicListener;
+import com.redhat.cajun.navy.process.message.listeners.ResponderSetUnavailableEventMessageListener;
+import com.redhat.cajun.navy.process.message.retry.RetryTopicRouter;
+import com.redhat.cajun.navy.process.responder.ResponderSnapshotListener;
+import io.cloudevents.CloudEvent;
 import io.cloudevents.kafka.CloudEventDeserializer;
+import io.cloudevents.kafka.CloudEventSerializer;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer2;
 
@@ -22,6 +50,9 @@ import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer2;
 @EnableKafka
 public class KafkaConfiguration {
 
+    @Autowired
+    private CloudEventPayloadCodec payloadCodec;
+
     @Value(value = "${kafka.bootstrap-address}")
     private String bootstrapAddress;
 
@@ -31,26 +62,150 @@ public class KafkaConfiguration {
     @Value(value = "${kafka.concurrency}")
     private Integer concurrency;
 
+    @Value(value = "${kafka.header-filter.enabled:true}")
+    private boolean headerFilterEnabled;
+
+    @Value(value = "${listener.destination.incident-reported-event}")
+    private String incidentReportedEventDestination;
+
+    @Value(value = "${listener.destination.responder-updated-event}")
+    private String responderUpdatedEventDestination;
+
+    @Value(value = "${listener.destination.mission-event}")
+    private String missionEventDestination;
+
+    @Value(value = "${kafka.producer.linger-ms:5}")
+    private int producerLinger;
+
+    @Value(value = "${kafka.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value(value = "${responder.snapshot.enabled:false}")
+    private boolean responderSnapshotEnabled;
+
+    @Value(value = "${kafka.parallel.enabled:false}")
+    private boolean parallelEnabled;
+
+    @Value(value = "${kafka.parallel.workers:0}")
+    private int parallelWorkers;
+
+    @Value(value = "${kafka.parallel.queue-capacity:1000}")
+    private int parallelQueueCapacity;
+
+    @Value(value = "${kafka.parallel.retry-backoff-ms:1000}")
+    private long parallelRetryBackoff;
+
+    @Value(value = "${kafka.parallel.max-attempts:5}")
+    private int parallelMaxAttempts;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    @Autowired
+    private MessageDeduplicator deduplicator;
+
+    @Autowired
+    private ObjectProvider<RetryTopicRouter> retryTopicRouter;
+
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public ConsumerFactory<String, CloudEvent> consumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer2.class);
-        configProps.put(ErrorHandlingDeserializer2.VALUE_DESERIALIZER_CLASS, CloudEventDeserializer.class);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, Boolean.FALSE);
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        Deserializer<CloudEvent> valueDeserializer = headerFilterEnabled
+                ? new HeaderFilteringCloudEventDeserializer(acceptedMessageTypes(), acceptedContentTypes())
+                : new CloudEventDeserializer();
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), new ErrorHandlingDeserializer2<>(valueDeserializer));
     }
 
     @Bean
-    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, String>> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, CloudEvent>> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, CloudEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.setConcurrency(concurrency);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener(keyOrderedDispatcher().rebalanceListener()));
         factory.setAutoStartup(false);
         return factory;
     }
+
+    @Bean
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, CloudEvent>> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, CloudEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.setBatchErrorHandler(new PartialBatchErrorHandler());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener(null));
+        factory.setAutoStartup(false);
+        return factory;
+    }
+
+    private ConsumerAwareRebalanceListener rebalanceListener(ConsumerAwareRebalanceListener delegate) {
+        return new ConsumerAwareRebalanceListener() {
+
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                if (delegate != null) {
+                    delegate.onPartitionsRevokedBeforeCommit(consumer, partitions);
+                }
+            }
+
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                if (delegate != null) {
+                    delegate.onPartitionsAssigned(consumer, partitions);
+                }
+                // records redelivered from the new partitions may have been processed by their previous owner
+                deduplicator.refresh();
+            }
+        };
+    }
+
+    @Bean
+    public ProducerFactory<String, CloudEvent> producerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, Boolean.TRUE);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, producerLinger);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), new CloudEventSerializer());
+    }
+
+    @Bean
+    public KafkaTemplate<String, CloudEvent> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public KeyOrderedDispatcher keyOrderedDispatcher() {
+        KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(parallelEnabled, parallelWorkers, parallelQueueCapacity,
+                parallelRetryBackoff, parallelMaxAttempts);
+        dispatcher.setListenerContainers(kafkaListenerEndpointRegistry::getListenerContainers);
+        dispatcher.setRetryRouter(retryTopicRouter::getIfAvailable);
+        return dispatcher;
+    }
+
+    private Map<String, Set<String>> acceptedMessageTypes() {
+        Map<String, Set<String>> acceptedMessageTypes = new HashMap<>();
+        acceptedMessageTypes.computeIfAbsent(incidentReportedEventDestination, t -> new HashSet<>())
+                .add(IncidentReportedEventMessageListener.TYPE_INCIDENT_REPORTED_EVENT);
+        acceptedMessageTypes.computeIfAbsent(responderUpdatedEventDestination, t -> new HashSet<>())
+                .add(ResponderSetUnavailableEventMessageListener.TYPE_RESPONDER_SET_UNAVAILABLE_EVENT);
+        acceptedMessageTypes.computeIfAbsent(missionEventDestination, t -> new HashSet<>())
+                .addAll(Arrays.asList(MissionEventTopicListener.ACCEPTED_MESSAGE_TYPES));
+        if (responderSnapshotEnabled) {
+            acceptedMessageTypes.computeIfAbsent(responderUpdatedEventDestination, t -> new HashSet<>())
+                    .addAll(Arrays.asList(ResponderSnapshotListener.ACCEPTED_MESSAGE_TYPES));
+        }
+        return acceptedMessageTypes;
+    }
+
+    private Set<String> acceptedContentTypes() {
+        return payloadCodec.contentTypes();
+    }
 }
@@ -1,5 +1,6 @@
 package com.redhat.cajun.navy.process;
 
+import com.redhat.cajun.navy.process.message.retry.RetryTopicListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +13,12 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan
 @EnableAutoConfiguration(exclude = { KafkaAutoConfiguration.class })
+@EnableScheduling
 public class ProcessServiceApplication {
 
     private final static Logger log = LoggerFactory.getLogger(ProcessServiceApplication.class);
@@ -37,9 +40,15 @@ public class ProcessServiceApplication {
             @Autowired
             private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
 
+            @Autowired(required = false)
+            private RetryTopicListener retryTopicListener;
+
             @Override
             public void run(String... strings) throws Exception {
                 kafkaListenerEndpointRegistry.start();
+                if (retryTopicListener != null) {
+                    retryTopicListener.start();
+                }
             }
         };
     }
@@ -0,0 +1,38 @@
+package com.redhat.cajun.navy.process.correlation;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jbpm.services.api.ProcessService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CorrelationConfiguration {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProcessService processService;
+
+    @Value("${process.instance-id-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${process.instance-id-cache.expire-after-access:PT1H}")
+    private String expireAfterAccess;
+
+    @Bean
+    public ProcessInstanceIdCache processInstanceIdCache() {
+        ProcessInstanceIdCache processInstanceIdCache = new ProcessInstanceIdCache(processService, maximumSize, Duration.parse(expireAfterAccess));
+        processInstanceIdCache.bindTo(meterRegistry);
+        return processInstanceIdCache;
+    }
+
+    @Bean
+    public ProcessInstanceIdCacheEvictionListener processInstanceIdCacheEvictionListener() {
+        return new ProcessInstanceIdCacheEvictionListener(processInstanceIdCache());
+    }
+}
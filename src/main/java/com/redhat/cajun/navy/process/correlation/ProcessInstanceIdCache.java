@@ -0,0 +1,62 @@
+package com.redhat.cajun.navy.process.correlation;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.jbpm.services.api.ProcessService;
+import org.kie.api.runtime.process.ProcessInstance;
+import org.kie.internal.KieInternalServices;
+import org.kie.internal.process.CorrelationKeyFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ProcessInstanceIdCache implements MeterBinder {
+
+    private final CorrelationKeyFactory correlationKeyFactory = KieInternalServices.Factory.get().newCorrelationKeyFactory();
+
+    private final ProcessService processService;
+
+    private final Cache<String, Long> cache;
+
+    public ProcessInstanceIdCache(ProcessService processService, long maximumSize, Duration expireAfterAccess) {
+        this.processService = processService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+    }
+
+    public Long getProcessInstanceId(String incidentId) {
+        return cache.get(incidentId, key -> {
+            ProcessInstance processInstance = processService.getProcessInstance(correlationKeyFactory.newCorrelationKey(key));
+            return processInstance == null ? null : processInstance.getId();
+        });
+    }
+
+    public void put(String incidentId, Long processInstanceId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(incidentId, processInstanceId);
+                }
+            });
+        } else {
+            cache.put(incidentId, processInstanceId);
+        }
+    }
+
+    public void evict(String incidentId) {
+        cache.invalidate(incidentId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "process.instance.id");
+    }
+}
@@ -0,0 +1,26 @@
+package com.redhat.cajun.navy.process.correlation;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.runtime.process.WorkflowProcessInstance;
+
+public class ProcessInstanceIdCacheEvictionListener extends DefaultProcessEventListener {
+
+    private final ProcessInstanceIdCache processInstanceIdCache;
+
+    public ProcessInstanceIdCacheEvictionListener(ProcessInstanceIdCache processInstanceIdCache) {
+        this.processInstanceIdCache = processInstanceIdCache;
+    }
+
+    @Override
+    public void afterProcessCompleted(ProcessCompletedEvent event) {
+        if (!(event.getProcessInstance() instanceof WorkflowProcessInstance)) {
+            return;
+        }
+        Object incident = ((WorkflowProcessInstance) event.getProcessInstance()).getVariable("incident");
+        if (incident instanceof Incident) {
+            processInstanceIdCache.evict(((Incident) incident).getId());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.redhat.cajun.navy.process.http;
+
+public class CallNotPermittedException extends IllegalStateException {
+
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,126 @@
+package com.redhat.cajun.navy.process.http;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class HedgingExecutor {
+
+    private static final int MINIMUM_SAMPLES = 20;
+
+    private final Executor executor;
+
+    private final double percentile;
+
+    private final long minDelayMillis;
+
+    private final long[] latencies;
+
+    private int latencyIndex;
+
+    private int latencyCount;
+
+    private volatile long hedgeDelay = -1;
+
+    private final AtomicLong hedges = new AtomicLong();
+
+    public HedgingExecutor(Executor executor, double percentile, long minDelayMillis, int sampleSize) {
+        this.executor = executor;
+        this.percentile = percentile;
+        this.minDelayMillis = minDelayMillis;
+        this.latencies = new long[sampleSize];
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        long delay = hedgeDelay;
+        if (delay < 0) {
+            return timed(call).get();
+        }
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(timed(call), executor);
+        } catch (RejectedExecutionException e) {
+            return timed(call).get();
+        }
+        try {
+            return primary.get(delay, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            hedges.incrementAndGet();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        primary.whenComplete((result, t) -> complete(first, failed, result, t));
+        try {
+            CompletableFuture.supplyAsync(timed(call), executor).whenComplete((result, t) -> complete(first, failed, result, t));
+        } catch (RejectedExecutionException e) {
+            failed.incrementAndGet();
+        }
+        try {
+            return first.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    public long getHedges() {
+        return hedges.get();
+    }
+
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    private <T> void complete(CompletableFuture<T> first, AtomicInteger failed, T result, Throwable t) {
+        if (t == null) {
+            first.complete(result);
+        } else if (failed.incrementAndGet() == 2) {
+            first.completeExceptionally(t);
+        }
+    }
+
+    private <T> Supplier<T> timed(Supplier<T> call) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = call.get();
+            record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        };
+    }
+
+    private synchronized void record(long latency) {
+        latencies[latencyIndex] = latency;
+        latencyIndex = (latencyIndex + 1) % latencies.length;
+        if (latencyCount < latencies.length) {
+            latencyCount++;
+        }
+        if (latencyCount >= MINIMUM_SAMPLES && (latencyIndex % 16 == 0 || hedgeDelay < 0)) {
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * latencyCount) - 1;
+            hedgeDelay = Math.max(minDelayMillis, sorted[Math.max(0, Math.min(index, latencyCount - 1))]);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable t) {
+        if (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        return new IllegalStateException(t.getMessage(), t);
+    }
+}
@@ -0,0 +1,117 @@
+package com.redhat.cajun.navy.process.http;
+
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class HttpClientConfiguration {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${http.client.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${http.client.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${http.client.connect-timeout-ms:2000}")
+    private int connectTimeout;
+
+    @Value("${http.client.read-timeout-ms:5000}")
+    private int readTimeout;
+
+    @Value("${http.client.connection-request-timeout-ms:2000}")
+    private int connectionRequestTimeout;
+
+    @Value("${http.client.keep-alive-ms:30000}")
+    private long keepAlive;
+
+    @Value("${http.client.idle-timeout-ms:60000}")
+    private long idleTimeout;
+
+    @Value("${http.client.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${http.client.circuit-breaker.window-size:20}")
+    private int circuitBreakerWindowSize;
+
+    @Value("${http.client.circuit-breaker.minimum-calls:10}")
+    private int circuitBreakerMinimumCalls;
+
+    @Value("${http.client.circuit-breaker.open-duration-ms:30000}")
+    private long circuitBreakerOpenDuration;
+
+    @Value("${http.client.hedging.enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${http.client.hedging.percentile:0.95}")
+    private double hedgingPercentile;
+
+    @Value("${http.client.hedging.min-delay-ms:50}")
+    private long hedgingMinDelay;
+
+    @Value("${http.client.hedging.threads:20}")
+    private int hedgingThreads;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(keepAlive, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity(2000);
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "rest-work-item-handlers").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient() {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager())
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return duration > 0 ? Math.min(duration, keepAlive) : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate() {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient()));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ServiceResilience serviceResilience() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rest-hedging-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor hedgingPool = new ThreadPoolExecutor(hedgingThreads, hedgingThreads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory);
+        hedgingPool.allowCoreThreadTimeOut(true);
+        return new ServiceResilience(meterRegistry, hedgingPool, failureRateThreshold, circuitBreakerWindowSize,
+                circuitBreakerMinimumCalls, circuitBreakerOpenDuration, hedgingEnabled, hedgingPercentile, hedgingMinDelay);
+    }
+}
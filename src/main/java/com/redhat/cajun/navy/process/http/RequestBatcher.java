@@ -0,0 +1,100 @@
+package com.redhat.cajun.navy.process.http;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+public class RequestBatcher<K, V> {
+
+    // a key missing from the result completes with null, a failed stage only fails the requests for its key
+    private final Function<Collection<K>, Map<K, CompletionStage<V>>> loader;
+
+    private final int maxBatchSize;
+
+    private final long windowMillis;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+
+    public RequestBatcher(Function<Collection<K>, Map<K, CompletionStage<V>>> loader, int maxBatchSize, long windowMillis, int threads, String threadNamePrefix) {
+        this.loader = loader;
+        this.maxBatchSize = maxBatchSize;
+        this.windowMillis = windowMillis;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        this.scheduler = new ScheduledThreadPoolExecutor(threads, threadFactory);
+    }
+
+    public CompletableFuture<V> submit(K key) {
+        CompletableFuture<V> future;
+        boolean first;
+        Map<K, CompletableFuture<V>> full = null;
+        synchronized (lock) {
+            first = pending.isEmpty();
+            future = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                full = drain();
+            }
+        }
+        if (full != null) {
+            Map<K, CompletableFuture<V>> batch = full;
+            scheduler.execute(() -> load(batch));
+        } else if (first) {
+            scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            load(batch);
+        }
+    }
+
+    private Map<K, CompletableFuture<V>> drain() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void load(Map<K, CompletableFuture<V>> batch) {
+        try {
+            Map<K, CompletionStage<V>> results = loader.apply(batch.keySet());
+            batch.forEach((key, future) -> {
+                CompletionStage<V> result = results.get(key);
+                if (result == null) {
+                    future.complete(null);
+                } else {
+                    result.whenComplete((value, e) -> {
+                        if (e != null) {
+                            future.completeExceptionally(e);
+                        } else {
+                            future.complete(value);
+                        }
+                    });
+                }
+            });
+        } catch (Throwable e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.redhat.cajun.navy.process.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.HttpClientErrorException;
+
+public class ServiceResilience {
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    private final Map<String, HedgingExecutor> hedgingExecutors = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService hedgingPool;
+
+    private final int failureRateThreshold;
+
+    private final int windowSize;
+
+    private final int minimumCalls;
+
+    private final long openDurationMillis;
+
+    private final boolean hedgingEnabled;
+
+    private final double hedgingPercentile;
+
+    private final long hedgingMinDelayMillis;
+
+    public ServiceResilience(MeterRegistry meterRegistry, ExecutorService hedgingPool, int failureRateThreshold, int windowSize,
+                             int minimumCalls, long openDurationMillis, boolean hedgingEnabled, double hedgingPercentile,
+                             long hedgingMinDelayMillis) {
+        this.meterRegistry = meterRegistry;
+        this.hedgingPool = hedgingPool;
+        this.failureRateThreshold = failureRateThreshold;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.openDurationMillis = openDurationMillis;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgingPercentile = hedgingPercentile;
+        this.hedgingMinDelayMillis = hedgingMinDelayMillis;
+    }
+
+    public <T> T execute(String service, boolean idempotent, Supplier<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(service, this::circuitBreaker);
+        Supplier<T> guarded = call;
+        if (idempotent && hedgingEnabled) {
+            HedgingExecutor hedgingExecutor = hedgingExecutors.computeIfAbsent(service, this::hedgingExecutor);
+            guarded = () -> hedgingExecutor.execute(call);
+        }
+        return circuitBreaker.execute(guarded, e -> !(e instanceof HttpClientErrorException));
+    }
+
+    public void shutdown() {
+        hedgingPool.shutdownNow();
+    }
+
+    private CircuitBreaker circuitBreaker(String service) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(service, failureRateThreshold, windowSize, minimumCalls, openDurationMillis);
+        if (meterRegistry != null) {
+            Gauge.builder("http.client.circuit.state", circuitBreaker, c -> c.getState().ordinal())
+                    .tag("service", service)
+                    .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                    .register(meterRegistry);
+            counter(service, "success", circuitBreaker, CircuitBreaker::getSuccesses);
+            counter(service, "failure", circuitBreaker, CircuitBreaker::getFailures);
+            counter(service, "rejected", circuitBreaker, CircuitBreaker::getRejections);
+        }
+        return circuitBreaker;
+    }
+
+    private HedgingExecutor hedgingExecutor(String service) {
+        HedgingExecutor hedgingExecutor = new HedgingExecutor(hedgingPool, hedgingPercentile, hedgingMinDelayMillis, 128);
+        if (meterRegistry != null) {
+            FunctionCounter.builder("http.client.hedges", hedgingExecutor, HedgingExecutor::getHedges)
+                    .tag("service", service)
+                    .description("Number of hedged requests")
+                    .register(meterRegistry);
+            Gauge.builder("http.client.hedge.delay", hedgingExecutor, HedgingExecutor::getHedgeDelay)
+                    .tag("service", service)
+                    .description("Current hedge delay in milliseconds, -1 until enough latency samples are recorded")
+                    .register(meterRegistry);
+        }
+        return hedgingExecutor;
+    }
+
+    private void counter(String service, String outcome, CircuitBreaker circuitBreaker, ToDoubleFunction<CircuitBreaker> f) {
+        FunctionCounter.builder("http.client.circuit.calls", circuitBreaker, f)
+                .tag("service", service)
+                .tag("outcome", outcome)
+                .description("Calls through the circuit breaker by outcome")
+                .register(meterRegistry);
+    }
+}
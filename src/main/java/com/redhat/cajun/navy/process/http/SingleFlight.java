@@ -0,0 +1,81 @@
+package com.redhat.cajun.navy.process.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    public V execute(K key, long maxAgeMillis, Supplier<V> loader) {
+        while (true) {
+            Flight<V> flight = flights.get(key);
+            if (flight != null && !flight.isFresh(maxAgeMillis)) {
+                flights.remove(key, flight);
+                continue;
+            }
+            if (flight == null) {
+                Flight<V> created = new Flight<>();
+                if (flights.putIfAbsent(key, created) != null) {
+                    continue;
+                }
+                return lead(key, created, loader);
+            }
+            return flight.join();
+        }
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> loader) {
+        boolean completed = false;
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            completed = true;
+            return value;
+        } catch (Throwable t) {
+            // followers must never wait on a flight whose leader is gone
+            flight.future.completeExceptionally(t);
+            throw t;
+        } finally {
+            if (!completed) {
+                flights.remove(key, flight);
+            }
+        }
+    }
+
+    private static class Flight<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        private volatile long completedAt;
+
+        void complete(V value) {
+            completedAt = System.currentTimeMillis();
+            future.complete(value);
+        }
+
+        boolean isFresh(long maxAgeMillis) {
+            if (!future.isDone()) {
+                return true;
+            }
+            return !future.isCompletedExceptionally() && System.currentTimeMillis() - completedAt <= maxAgeMillis;
+        }
+
+        V join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.redhat.cajun.navy.process.message.codec;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+
+public class AvroPayloadFormat implements PayloadFormat {
+
+    public static final String CONTENT_TYPE = "application/avro";
+
+    private final AvroMapper avroMapper = new AvroMapper();
+
+    private final Map<Class<?>, AvroSchema> schemas = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public ObjectReader reader(Class<?> payloadType) {
+        return readers.computeIfAbsent(payloadType, t -> avroMapper.readerFor(t).with(schema(t)));
+    }
+
+    @Override
+    public ObjectWriter writer(Class<?> payloadType) {
+        return writers.computeIfAbsent(payloadType, t -> avroMapper.writerFor(t).with(schema(t)));
+    }
+
+    // the schema is derived from the payload class, producers and consumers share it through the model classes
+    AvroSchema schema(Class<?> payloadType) {
+        return schemas.computeIfAbsent(payloadType, t -> {
+            try {
+                return avroMapper.schemaFor(t);
+            } catch (JsonMappingException e) {
+                throw new IllegalStateException("Avro schema cannot be generated for payload type " + t.getName(), e);
+            }
+        });
+    }
+}
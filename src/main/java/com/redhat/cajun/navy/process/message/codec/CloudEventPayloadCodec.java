@@ -0,0 +1,132 @@
+package com.redhat.cajun.navy.process.message.codec;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.redhat.cajun.navy.process.message.model.IncidentReportedEvent;
+import com.redhat.cajun.navy.process.message.model.MissionCompletedEvent;
+import com.redhat.cajun.navy.process.message.model.MissionPickedUpEvent;
+import com.redhat.cajun.navy.process.message.model.MissionStartedEvent;
+import com.redhat.cajun.navy.process.message.model.ResponderSetUnavailableEvent;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.CloudEventData;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.core.data.PojoCloudEventData;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CloudEventPayloadCodec {
+
+    public static final String CONTENT_TYPE_JSON = "application/json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectReader> typedReaders = new ConcurrentHashMap<>();
+
+    private final Map<String, Class<?>> payloadTypes = new ConcurrentHashMap<>();
+
+    private final Map<String, PayloadFormat> formats = new ConcurrentHashMap<>();
+
+    public CloudEventPayloadCodec() {
+        register("IncidentReportedEvent", IncidentReportedEvent.class, objectMapper.readerFor(IncidentReportedEvent.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        register("MissionStartedEvent", MissionStartedEvent.class);
+        register("MissionPickedUpEvent", MissionPickedUpEvent.class);
+        register("MissionCompletedEvent", MissionCompletedEvent.class);
+        register("ResponderSetUnavailableEvent", ResponderSetUnavailableEvent.class);
+        register(new AvroPayloadFormat());
+    }
+
+    public void register(String type, Class<?> payloadType) {
+        register(type, payloadType, objectMapper.readerFor(payloadType));
+    }
+
+    public void register(String type, Class<?> payloadType, ObjectReader reader) {
+        readers.put(type.toLowerCase(), reader);
+        payloadTypes.put(type.toLowerCase(), payloadType);
+    }
+
+    public void register(PayloadFormat format) {
+        formats.put(format.contentType().toLowerCase(), format);
+    }
+
+    public Set<String> contentTypes() {
+        Set<String> contentTypes = new LinkedHashSet<>();
+        contentTypes.add(CONTENT_TYPE_JSON);
+        contentTypes.addAll(formats.keySet());
+        return Collections.unmodifiableSet(contentTypes);
+    }
+
+    public boolean isSupported(String contentType) {
+        return contentType != null && (isJson(contentType) || formats.containsKey(contentType.toLowerCase()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T decode(CloudEvent cloudEvent) throws IOException {
+        String type = cloudEvent.getType() == null ? null : cloudEvent.getType().toLowerCase();
+        ObjectReader reader = type == null ? null : readers.get(type);
+        if (reader == null) {
+            throw new IllegalStateException("No payload reader registered for CloudEvent type '" + cloudEvent.getType() + "'");
+        }
+        PayloadFormat format = format(cloudEvent.getDataContentType());
+        if (format != null) {
+            reader = format.reader(payloadTypes.get(type));
+        }
+        return (T) read(cloudEvent, reader);
+    }
+
+    public <T> T decode(CloudEvent cloudEvent, Class<T> payloadType) throws IOException {
+        PayloadFormat format = format(cloudEvent.getDataContentType());
+        ObjectReader reader = format != null ? format.reader(payloadType) : typedReaders.computeIfAbsent(payloadType,
+                t -> objectMapper.readerFor(t).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        return payloadType.cast(read(cloudEvent, reader));
+    }
+
+    public CloudEvent encode(CloudEvent cloudEvent, String contentType) {
+        PayloadFormat format = format(contentType);
+        if (format == null) {
+            return cloudEvent;
+        }
+        if (!(cloudEvent.getData() instanceof PojoCloudEventData)) {
+            throw new IllegalStateException("CloudEvent with type '" + cloudEvent.getType() + "' has no object data to encode as " + contentType);
+        }
+        Object value = ((PojoCloudEventData<?>) cloudEvent.getData()).getValue();
+        return CloudEventBuilder.v1(cloudEvent)
+                .withDataContentType(format.contentType())
+                .withData(PojoCloudEventData.wrap(value, format.writer(value.getClass())::writeValueAsBytes))
+                .build();
+    }
+
+    private PayloadFormat format(String contentType) {
+        if (contentType == null || isJson(contentType)) {
+            return null;
+        }
+        PayloadFormat format = formats.get(contentType.toLowerCase());
+        if (format == null) {
+            throw new IllegalStateException("No payload format registered for content type '" + contentType + "'");
+        }
+        return format;
+    }
+
+    private static boolean isJson(String contentType) {
+        return CONTENT_TYPE_JSON.equalsIgnoreCase(contentType);
+    }
+
+    private Object read(CloudEvent cloudEvent, ObjectReader reader) throws IOException {
+        CloudEventData data = cloudEvent.getData();
+        if (data == null) {
+            throw new IllegalStateException("CloudEvent with type '" + cloudEvent.getType() + "' contains no data");
+        }
+        // the data of a CloudEvent read from Kafka wraps the record value, toBytes() does not copy it
+        return reader.readValue(data.toBytes());
+    }
+}
@@ -0,0 +1,14 @@
+package com.redhat.cajun.navy.process.message.codec;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+public interface PayloadFormat {
+
+    String contentType();
+
+    ObjectReader reader(Class<?> payloadType);
+
+    ObjectWriter writer(Class<?> payloadType);
+
+}
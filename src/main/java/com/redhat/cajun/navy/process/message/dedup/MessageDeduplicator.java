@@ -0,0 +1,225 @@
+package com.redhat.cajun.navy.process.message.dedup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import io.cloudevents.CloudEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class MessageDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageDeduplicator.class);
+
+    // ids committed by other instances can show up with a slightly older processed_at than the last refresh
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${kafka.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${kafka.dedup.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${kafka.dedup.retention-hours:168}")
+    private long retentionHours;
+
+    @Value("${kafka.dedup.bloom-filter.enabled:true}")
+    private boolean bloomFilterEnabled;
+
+    @Value("${kafka.dedup.bloom-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${kafka.dedup.bloom-filter.fpp:0.01}")
+    private double fpp;
+
+    private Set<String> processed;
+
+    // null until loaded from the store; until then every cache miss goes to the store
+    private volatile BloomFilter seen;
+
+    private Instant lastRefresh;
+
+    // full loads can take a while and must not hold up the consumer or the scheduler threads
+    private ExecutorService loader;
+
+    private Future<?> loading;
+
+    @PostConstruct
+    public void init() {
+        processed = Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        }));
+        loader = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("dedup-bloom-filter-"));
+        if (enabled && bloomFilterEnabled) {
+            loading = loader.submit(this::rebuild);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    public static String key(CloudEvent cloudEvent) {
+        if (cloudEvent.getId() == null) {
+            return null;
+        }
+        // a URI cannot contain a space, so the key is unambiguous
+        return cloudEvent.getSource() == null ? cloudEvent.getId() : cloudEvent.getSource() + " " + cloudEvent.getId();
+    }
+
+    public boolean isDuplicate(CloudEvent cloudEvent) {
+        String key = key(cloudEvent);
+        if (!enabled || key == null) {
+            return false;
+        }
+        if (processed.contains(key)) {
+            log.debug("CloudEvent " + key + " has already been processed. Message is ignored");
+            return true;
+        }
+        BloomFilter filter = seen;
+        if (filter != null && !filter.mightContain(key)) {
+            return false;
+        }
+        if (entityManager.find(ProcessedMessage.class, key) != null) {
+            processed.add(key);
+            log.debug("CloudEvent " + key + " has already been processed. Message is ignored");
+            return true;
+        }
+        return false;
+    }
+
+    public void markProcessed(CloudEvent cloudEvent) {
+        String key = key(cloudEvent);
+        if (!enabled || key == null) {
+            return;
+        }
+        entityManager.persist(new ProcessedMessage(key, Instant.now()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(key);
+                }
+            });
+        } else {
+            remember(key);
+        }
+    }
+
+    private void remember(String key) {
+        processed.add(key);
+        BloomFilter filter = seen;
+        if (filter != null) {
+            filter.put(key);
+        }
+    }
+
+    // also called when partitions are assigned, so that records redelivered after a rebalance see the ids committed by their previous owner.
+    // Only adds the ids committed since the last refresh, the full load runs on the loader thread.
+    @Scheduled(fixedDelayString = "${kafka.dedup.bloom-filter.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        if (!enabled || !bloomFilterEnabled) {
+            return;
+        }
+        if (seen == null) {
+            // still loading; if the load failed, try again
+            if (loading == null || loading.isDone()) {
+                loading = loader.submit(this::rebuild);
+            }
+            return;
+        }
+        Instant since = lastRefresh.minus(REFRESH_OVERLAP);
+        lastRefresh = Instant.now();
+        long loaded = load(seen, since);
+        log.debug("Added " + loaded + " processed message ids to the bloom filter");
+    }
+
+    void rebuild() {
+        BloomFilter filter = new BloomFilter(expectedInsertions, fpp);
+        Instant start = Instant.now();
+        long loaded;
+        try {
+            loaded = load(filter, Instant.EPOCH);
+            synchronized (this) {
+                // pick up ids committed by this and other instances while loading
+                load(filter, start.minus(REFRESH_OVERLAP));
+                lastRefresh = Instant.now();
+                seen = filter;
+            }
+        } catch (Exception e) {
+            log.warn("Error loading processed message ids in the bloom filter", e);
+            return;
+        }
+        if (loaded > expectedInsertions) {
+            log.warn("Loaded " + loaded + " processed message ids in a bloom filter sized for " + expectedInsertions
+                    + ". Increase kafka.dedup.bloom-filter.expected-insertions");
+        } else {
+            log.info("Loaded " + loaded + " processed message ids in the bloom filter");
+        }
+    }
+
+    private long load(BloomFilter filter, Instant since) {
+        return new TransactionTemplate(transactionManager).execute((TransactionStatus s) -> {
+            try (Stream<String> ids = entityManager.createQuery("select m.id from ProcessedMessage m where m.processedAt >= :since", String.class)
+                    .setParameter("since", since).getResultStream()) {
+                long[] count = {0};
+                ids.forEach(id -> {
+                    filter.put(id);
+                    count[0]++;
+                });
+                return count[0];
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.dedup.cleanup-interval-ms:3600000}", initialDelayString = "${kafka.dedup.cleanup-interval-ms:3600000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(Duration.ofHours(retentionHours));
+        Integer deleted = new TransactionTemplate(transactionManager).execute((TransactionStatus s) ->
+                entityManager.createQuery("delete from ProcessedMessage m where m.processedAt < :cutoff")
+                        .setParameter("cutoff", cutoff).executeUpdate());
+        log.debug("Purged " + deleted + " processed message ids older than " + cutoff);
+        // a bloom filter cannot forget, rebuild it from the remaining ids so that it does not fill up
+        if (bloomFilterEnabled) {
+            synchronized (this) {
+                loading = loader.submit(this::rebuild);
+            }
+        }
+    }
+}
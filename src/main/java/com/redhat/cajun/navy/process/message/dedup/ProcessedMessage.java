@@ -0,0 +1,37 @@
+package com.redhat.cajun.navy.process.message.dedup;
+
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+@Entity
+@Table(name = "process_service_processed_message")
+public class ProcessedMessage {
+
+    @Id
+    @Column(length = 1024)
+    private String id;
+
+    @Column(name = "processed_at")
+    @NotNull
+    private Instant processedAt;
+
+    ProcessedMessage() {
+    }
+
+    public ProcessedMessage(String id, Instant processedAt) {
+        this.id = id;
+        this.processedAt = processedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Instant getProcessedAt() {
+        return processedAt;
+    }
+}
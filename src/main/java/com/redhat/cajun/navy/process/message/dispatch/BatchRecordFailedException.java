@@ -0,0 +1,35 @@
+package com.redhat.cajun.navy.process.message.dispatch;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+public class BatchRecordFailedException extends IllegalStateException {
+
+    private final String topic;
+
+    private final int partition;
+
+    private final long offset;
+
+    public BatchRecordFailedException(String topic, int partition, long offset, Throwable cause) {
+        super("Error processing record " + topic + "-" + partition + "@" + offset + ": " + cause.getMessage(), cause);
+        this.topic = topic;
+        this.partition = partition;
+        this.offset = offset;
+    }
+
+    boolean isAtOrAfter(ConsumerRecord<?, ?> record) {
+        return topic.equals(record.topic()) && partition == record.partition() && record.offset() >= offset;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
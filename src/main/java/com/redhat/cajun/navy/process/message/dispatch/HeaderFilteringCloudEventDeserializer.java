@@ -0,0 +1,98 @@
+package com.redhat.cajun.navy.process.message.dispatch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.kafka.CloudEventDeserializer;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class HeaderFilteringCloudEventDeserializer implements Deserializer<CloudEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(HeaderFilteringCloudEventDeserializer.class);
+
+    static final String CE_TYPE_HEADER = "ce_type";
+
+    static final String CONTENT_TYPE_HEADER = "content-type";
+
+    private static final String STRUCTURED_CONTENT_TYPE_PREFIX = "application/cloudevents";
+
+    private final CloudEventDeserializer delegate = new CloudEventDeserializer();
+
+    private final Map<String, Set<String>> acceptedMessageTypes;
+
+    private final Set<String> acceptedContentTypes;
+
+    public HeaderFilteringCloudEventDeserializer(Map<String, Set<String>> acceptedMessageTypes, Set<String> acceptedContentTypes) {
+        this.acceptedMessageTypes = new HashMap<>();
+        acceptedMessageTypes.forEach((topic, types) -> this.acceptedMessageTypes.put(topic, lowerCase(types)));
+        this.acceptedContentTypes = lowerCase(acceptedContentTypes);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public CloudEvent deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public CloudEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (!accept(topic, headers)) {
+            return null;
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private boolean accept(String topic, Headers headers) {
+        Set<String> messageTypes = acceptedMessageTypes.get(topic);
+        if (messageTypes == null || headers == null) {
+            return true;
+        }
+        String contentType = header(headers, CONTENT_TYPE_HEADER);
+        if (contentType != null && contentType.toLowerCase().startsWith(STRUCTURED_CONTENT_TYPE_PREFIX)) {
+            // structured mode: the type is part of the payload
+            return true;
+        }
+        String messageType = header(headers, CE_TYPE_HEADER);
+        if (messageType == null) {
+            return true;
+        }
+        if (!messageTypes.contains(messageType.toLowerCase())) {
+            log.debug("Message with type '" + messageType + "' on topic '" + topic + "' is ignored");
+            return false;
+        }
+        if (contentType == null || !acceptedContentTypes.contains(contentType.toLowerCase())) {
+            log.warn("CloudEvent data content type is not specified or not accepted. Message with type '" + messageType + "' is ignored");
+            return false;
+        }
+        return true;
+    }
+
+    private static Set<String> lowerCase(Set<String> values) {
+        return values.stream().map(String::toLowerCase).collect(Collectors.toSet());
+    }
+
+    private String header(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,255 @@
+package com.redhat.cajun.navy.process.message.dispatch;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.redhat.cajun.navy.process.message.retry.RetryTopicRouter;
+import io.cloudevents.CloudEvent;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+public class KeyOrderedDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+
+    private final boolean enabled;
+
+    private final int queueCapacity;
+
+    private final long retryBackoff;
+
+    private final int maxAttempts;
+
+    private final ThreadPoolExecutor[] lanes;
+
+    private final Map<TopicPartition, PartitionOffsetTracker> trackers = new ConcurrentHashMap<>();
+
+    private final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+    private Supplier<Collection<? extends MessageListenerContainer>> listenerContainers = Collections::emptyList;
+
+    private Supplier<RetryTopicRouter> retryRouter = () -> null;
+
+    private boolean paused = false;
+
+    private volatile boolean running = true;
+
+    public KeyOrderedDispatcher(boolean enabled, int workers, int queueCapacity, long retryBackoff, int maxAttempts) {
+        this.enabled = enabled;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.retryBackoff = retryBackoff;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        if (enabled) {
+            int size = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+            lanes = new ThreadPoolExecutor[size];
+            for (int i = 0; i < size; i++) {
+                // unbounded, so the consumer thread never blocks: a full lane pauses the listener containers instead
+                lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                        new CustomizableThreadFactory("kafka-lane-" + i + "-"));
+            }
+        } else {
+            lanes = new ThreadPoolExecutor[0];
+        }
+    }
+
+    public void setListenerContainers(Supplier<Collection<? extends MessageListenerContainer>> listenerContainers) {
+        this.listenerContainers = listenerContainers;
+    }
+
+    public void setRetryRouter(Supplier<RetryTopicRouter> retryRouter) {
+        this.retryRouter = retryRouter;
+    }
+
+    public static String orderingKey(CloudEvent cloudEvent, String key) {
+        if (cloudEvent != null && cloudEvent.getExtension("incidentid") != null) {
+            return cloudEvent.getExtension("incidentid").toString();
+        }
+        return key;
+    }
+
+    public void dispatch(String topic, int partition, long offset, String orderingKey, CloudEvent cloudEvent,
+                         Acknowledgment ack, Consumer<Acknowledgment> task) {
+        if (!enabled) {
+            task.accept(ack);
+            return;
+        }
+        topics.add(topic);
+        Thread consumerThread = Thread.currentThread();
+        PartitionOffsetTracker tracker = trackers.compute(new TopicPartition(topic, partition), (tp, current) -> {
+            if (current != null && !current.isRevoked() && current.isOwnedBy(consumerThread)) {
+                return current;
+            }
+            if (current != null) {
+                current.revoke();
+            }
+            return new PartitionOffsetTracker(consumerThread);
+        });
+        tracker.register(offset, ack);
+        if (cloudEvent == null) {
+            // tombstones and records that are not CloudEvents: nothing to process, but the commit has to wait for the records before them
+            log.debug("Record " + topic + ":" + partition + ":" + offset + " is not a CloudEvent and is skipped");
+            tracker.complete(offset);
+            return;
+        }
+        int hash = orderingKey == null ? partition : orderingKey.hashCode();
+        ThreadPoolExecutor lane = lanes[Math.floorMod(hash, lanes.length)];
+        lane.execute(() -> {
+            try {
+                process(topic, partition, offset, orderingKey, cloudEvent, tracker, task);
+            } finally {
+                resumeIfDrained();
+            }
+        });
+        if (lane.getQueue().size() >= queueCapacity) {
+            pause();
+            // the lanes may have drained before the containers were paused
+            resumeIfDrained();
+        }
+    }
+
+    private void process(String topic, int partition, long offset, String orderingKey, CloudEvent cloudEvent,
+                         PartitionOffsetTracker tracker, Consumer<Acknowledgment> task) {
+        Acknowledgment laneAck = () -> tracker.complete(offset);
+        for (int attempt = 1; running && !tracker.isRevoked(); attempt++) {
+            try {
+                task.accept(laneAck);
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    recover(topic, partition, offset, orderingKey, cloudEvent, e);
+                    laneAck.acknowledge();
+                    return;
+                }
+                log.warn("Error processing record " + topic + ":" + partition + ":" + offset + " with key '" + orderingKey
+                        + "'. Retrying in " + retryBackoff + " ms");
+                try {
+                    Thread.sleep(retryBackoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        log.debug("Record " + topic + ":" + partition + ":" + offset + " discarded, partition was revoked");
+    }
+
+    private void recover(String topic, int partition, long offset, String orderingKey, CloudEvent cloudEvent, Exception e) {
+        RetryTopicRouter router = retryRouter.get();
+        if (router == null || cloudEvent == null) {
+            log.error("Error processing record " + topic + ":" + partition + ":" + offset + " with key '" + orderingKey
+                    + "' after " + maxAttempts + " attempts. Record is skipped", e);
+            return;
+        }
+        log.error("Error processing record " + topic + ":" + partition + ":" + offset + " with key '" + orderingKey
+                + "' after " + maxAttempts + " attempts", e);
+        try {
+            router.route(topic, orderingKey, cloudEvent, router.getTiers());
+        } catch (Exception re) {
+            log.error("Error sending CloudEvent " + cloudEvent.getId() + " to dead-letter topic. Record is skipped", re);
+        }
+    }
+
+    private synchronized void pause() {
+        if (paused) {
+            return;
+        }
+        paused = true;
+        log.info("Dispatcher lane is full, pausing listener containers for topics " + topics);
+        for (MessageListenerContainer container : containers()) {
+            container.pause();
+        }
+    }
+
+    private synchronized void resumeIfDrained() {
+        if (!paused) {
+            return;
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            if (lane.getQueue().size() > queueCapacity / 2) {
+                return;
+            }
+        }
+        paused = false;
+        log.info("Dispatcher lanes drained, resuming listener containers for topics " + topics);
+        for (MessageListenerContainer container : containers()) {
+            container.resume();
+        }
+    }
+
+    private Collection<MessageListenerContainer> containers() {
+        Set<MessageListenerContainer> containers = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (MessageListenerContainer container : listenerContainers.get()) {
+            String[] containerTopics = container.getContainerProperties().getTopics();
+            if (containerTopics == null) {
+                continue;
+            }
+            for (String topic : containerTopics) {
+                if (topics.contains(topic)) {
+                    containers.add(container);
+                    break;
+                }
+            }
+        }
+        return containers;
+    }
+
+    public ConsumerAwareRebalanceListener rebalanceListener() {
+        return new ConsumerAwareRebalanceListener() {
+
+            @Override
+            public void onPartitionsRevokedBeforeCommit(org.apache.kafka.clients.consumer.Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                reset(partitions, "revoked");
+            }
+
+            @Override
+            public void onPartitionsAssigned(org.apache.kafka.clients.consumer.Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                reset(partitions, "assigned");
+            }
+        };
+    }
+
+    // rebalance callbacks run on the consumer thread; trackers owned by other consumers of the same topic are left alone
+    void reset(Collection<TopicPartition> partitions, String reason) {
+        Thread consumerThread = Thread.currentThread();
+        for (TopicPartition partition : partitions) {
+            PartitionOffsetTracker tracker = trackers.get(partition);
+            if (tracker != null && tracker.isOwnedBy(consumerThread) && trackers.remove(partition, tracker)) {
+                if (tracker.inFlight() > 0) {
+                    log.info("Partition " + partition + " " + reason + ", discarding " + tracker.inFlight() + " in-flight records");
+                }
+                tracker.revoke();
+            }
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            try {
+                if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                    lane.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lane.shutdownNow();
+            }
+        }
+    }
+}
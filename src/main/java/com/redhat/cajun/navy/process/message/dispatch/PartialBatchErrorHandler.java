@@ -0,0 +1,69 @@
+package com.redhat.cajun.navy.process.message.dispatch;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.ContainerAwareBatchErrorHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.SeekToCurrentBatchErrorHandler;
+
+public class PartialBatchErrorHandler implements ContainerAwareBatchErrorHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(PartialBatchErrorHandler.class);
+
+    private final ContainerAwareBatchErrorHandler delegate = new SeekToCurrentBatchErrorHandler();
+
+    @Override
+    public void handle(Exception thrownException, ConsumerRecords<?, ?> data, Consumer<?, ?> consumer, MessageListenerContainer container) {
+        BatchRecordFailedException failure = failure(thrownException);
+        if (failure == null || data == null) {
+            delegate.handle(thrownException, data, consumer, container);
+            return;
+        }
+        Map<TopicPartition, OffsetAndMetadata> completed = new HashMap<>();
+        Map<TopicPartition, Long> remaining = new LinkedHashMap<>();
+        boolean failed = false;
+        for (ConsumerRecord<?, ?> record : data) {
+            TopicPartition topicPartition = new TopicPartition(record.topic(), record.partition());
+            if (!failed && failure.isAtOrAfter(record)) {
+                failed = true;
+            }
+            if (failed) {
+                remaining.putIfAbsent(topicPartition, record.offset());
+            } else {
+                completed.put(topicPartition, new OffsetAndMetadata(record.offset() + 1));
+            }
+        }
+        if (!failed) {
+            delegate.handle(thrownException, data, consumer, container);
+            return;
+        }
+        if (!completed.isEmpty()) {
+            consumer.commitSync(completed);
+        }
+        remaining.forEach(consumer::seek);
+        log.warn("Committed " + completed.size() + " partitions up to " + failure.getTopic() + "-" + failure.getPartition() + "@" + failure.getOffset()
+                + ", redelivering the remainder of the batch");
+        throw new KafkaException("Seek to failed record after exception", thrownException);
+    }
+
+    private static BatchRecordFailedException failure(Throwable exception) {
+        Throwable cause = exception;
+        while (cause != null) {
+            if (cause instanceof BatchRecordFailedException) {
+                return (BatchRecordFailedException) cause;
+            }
+            cause = cause.getCause() == cause ? null : cause.getCause();
+        }
+        return null;
+    }
+}
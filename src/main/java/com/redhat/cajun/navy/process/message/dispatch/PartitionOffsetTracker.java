@@ -0,0 +1,77 @@
+package com.redhat.cajun.navy.process.message.dispatch;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.kafka.support.Acknowledgment;
+
+class PartitionOffsetTracker {
+
+    private final TreeMap<Long, Entry> inFlight = new TreeMap<>();
+
+    private final Thread owner;
+
+    private volatile boolean revoked;
+
+    PartitionOffsetTracker() {
+        this(Thread.currentThread());
+    }
+
+    PartitionOffsetTracker(Thread owner) {
+        this.owner = owner;
+    }
+
+    synchronized void register(long offset, Acknowledgment ack) {
+        if (!revoked) {
+            inFlight.put(offset, new Entry(ack));
+        }
+    }
+
+    synchronized void complete(long offset) {
+        if (revoked) {
+            return;
+        }
+        Entry entry = inFlight.get(offset);
+        if (entry == null) {
+            return;
+        }
+        entry.completed = true;
+        Acknowledgment contiguous = null;
+        while (!inFlight.isEmpty() && inFlight.firstEntry().getValue().completed) {
+            Map.Entry<Long, Entry> first = inFlight.pollFirstEntry();
+            contiguous = first.getValue().ack;
+        }
+        // acknowledge while holding the lock, so that commits for a partition never go backwards
+        if (contiguous != null) {
+            contiguous.acknowledge();
+        }
+    }
+
+    synchronized void revoke() {
+        revoked = true;
+        inFlight.clear();
+    }
+
+    boolean isRevoked() {
+        return revoked;
+    }
+
+    boolean isOwnedBy(Thread thread) {
+        return owner == thread;
+    }
+
+    synchronized int inFlight() {
+        return inFlight.size();
+    }
+
+    private static class Entry {
+
+        private final Acknowledgment ack;
+
+        private boolean completed;
+
+        Entry(Acknowledgment ack) {
+            this.ack = ack;
+        }
+    }
+}
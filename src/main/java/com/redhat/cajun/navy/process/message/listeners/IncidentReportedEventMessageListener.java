@@ -3,10 +3,12 @@ package com.redhat.cajun.navy.process.message.listeners;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cajun.navy.process.correlation.ProcessInstanceIdCache;
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.dedup.MessageDeduplicator;
+import com.redhat.cajun.navy.process.message.dispatch.KeyOrderedDispatcher;
 import com.redhat.cajun.navy.process.message.model.IncidentReportedEvent;
+import com.redhat.cajun.navy.process.metrics.IncidentLatencyTracker;
 import com.redhat.cajun.navy.rules.model.Incident;
 import io.cloudevents.CloudEvent;
 import org.jbpm.services.api.ProcessService;
@@ -32,7 +34,7 @@ public class IncidentReportedEventMessageListener {
 
     private final static Logger log = LoggerFactory.getLogger(IncidentReportedEventMessageListener.class);
 
-    private static final String TYPE_INCIDENT_REPORTED_EVENT = "IncidentReportedEvent";
+    public static final String TYPE_INCIDENT_REPORTED_EVENT = "IncidentReportedEvent";
 
     private CorrelationKeyFactory correlationKeyFactory = KieInternalServices.Factory.get().newCorrelationKeyFactory();
 
@@ -42,6 +44,21 @@ public class IncidentReportedEventMessageListener {
     @Autowired
     private PlatformTransactionManager transactionManager;
 
+    @Autowired
+    private KeyOrderedDispatcher dispatcher;
+
+    @Autowired
+    private CloudEventPayloadCodec payloadCodec;
+
+    @Autowired
+    private MessageDeduplicator deduplicator;
+
+    @Autowired
+    private ProcessInstanceIdCache processInstanceIdCache;
+
+    @Autowired(required = false)
+    private IncidentLatencyTracker latencyTracker;
+
     @Value("${incident.deployment.id}")
     private String deploymentId;
 
@@ -52,11 +69,20 @@ public class IncidentReportedEventMessageListener {
     private String assignmentDelay;
 
     @KafkaListener(topics = "${listener.destination.incident-reported-event}")
+    public void onMessage(@Payload(required = false) CloudEvent cloudEvent, @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
+                          @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                          @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
+                          @Header(KafkaHeaders.OFFSET) long offset, Acknowledgment ack) {
+
+        dispatcher.dispatch(topic, partition, offset, KeyOrderedDispatcher.orderingKey(cloudEvent, key), cloudEvent, ack,
+                a -> processMessage(cloudEvent, key, topic, partition, a));
+    }
+
     public void processMessage(@Payload CloudEvent cloudEvent, @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
                                @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
                                @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition, Acknowledgment ack) {
 
-        if (!accept(cloudEvent)) {
+        if (!accept(cloudEvent) || deduplicator.isDuplicate(cloudEvent)) {
             ack.acknowledge();
             return;
         }
@@ -68,12 +94,14 @@ public class IncidentReportedEventMessageListener {
         IncidentReportedEvent incidentReportedEvent;
         try {
 
-            incidentReportedEvent = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-                    .readValue(cloudEvent.getData().toBytes(), new TypeReference<IncidentReportedEvent>() {});
+            incidentReportedEvent = payloadCodec.decode(cloudEvent);
 
             validate(incidentReportedEvent);
 
             String incidentId = incidentReportedEvent.getId();
+            if (latencyTracker != null) {
+                latencyTracker.received(incidentId, cloudEvent.getTime());
+            }
 
             Incident incident = new Incident();
             incident.setId(incidentId);
@@ -91,8 +119,13 @@ public class IncidentReportedEventMessageListener {
 
             TransactionTemplate template = new TransactionTemplate(transactionManager);
             template.execute((TransactionStatus s) -> {
+                deduplicator.markProcessed(cloudEvent);
                 Long pi = processService.startProcess(deploymentId, processId, correlationKey, parameters);
                 log.debug("Started incident process for incident " + incidentId + ". ProcessInstanceId = " + pi);
+                processInstanceIdCache.put(incidentId, pi);
+                if (latencyTracker != null) {
+                    latencyTracker.mark(incidentId, IncidentLatencyTracker.Stage.PROCESS_STARTED);
+                }
                 return null;
             });
         } catch (Exception e) {
@@ -113,8 +146,8 @@ public class IncidentReportedEventMessageListener {
             return false;
         }
         String contentType = cloudEvent.getDataContentType();
-        if (contentType == null || !(contentType.equalsIgnoreCase("application/json"))) {
-            log.warn("CloudEvent data content type is not specified or not 'application/json'. Message is ignored");
+        if (!payloadCodec.isSupported(contentType)) {
+            log.warn("CloudEvent data content type '" + contentType + "' is not specified or not supported. Message is ignored");
             return false;
         }
         return true;
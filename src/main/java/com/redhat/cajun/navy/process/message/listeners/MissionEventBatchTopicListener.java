@@ -0,0 +1,207 @@
+package com.redhat.cajun.navy.process.message.listeners;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.redhat.cajun.navy.process.correlation.ProcessInstanceIdCache;
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.dedup.MessageDeduplicator;
+import com.redhat.cajun.navy.process.message.dispatch.BatchRecordFailedException;
+import com.redhat.cajun.navy.process.message.retry.RetryTopicRouter;
+import com.redhat.cajun.navy.process.message.retry.RetryableMessageHandler;
+import com.redhat.cajun.navy.process.metrics.IncidentLatencyTracker;
+import io.cloudevents.CloudEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.jbpm.services.api.ProcessInstanceNotFoundException;
+import org.jbpm.services.api.ProcessService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+@ConditionalOnProperty(name = "listener.mission-event.batch.enabled", havingValue = "true")
+public class MissionEventBatchTopicListener implements RetryableMessageHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(MissionEventBatchTopicListener.class);
+
+    @Autowired
+    private ProcessService processService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CloudEventPayloadCodec payloadCodec;
+
+    @Autowired
+    private MessageDeduplicator deduplicator;
+
+    @Autowired
+    private ProcessInstanceIdCache processInstanceIdCache;
+
+    @Autowired(required = false)
+    private RetryTopicRouter retryRouter;
+
+    @Autowired(required = false)
+    private IncidentLatencyTracker latencyTracker;
+
+    @Value("${listener.destination.mission-event}")
+    private String missionEventDestination;
+
+    @Value("${listener.mission-event.batch.transaction-size:100}")
+    private int transactionSize;
+
+    @KafkaListener(topics = "${listener.destination.mission-event}", containerFactory = "batchKafkaListenerContainerFactory",
+            properties = "max.poll.records=${listener.mission-event.batch.max-poll-records:500}")
+    public void processMessages(List<ConsumerRecord<String, CloudEvent>> records, Acknowledgment ack) {
+
+        List<Signal> signals = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (ConsumerRecord<String, CloudEvent> record : records) {
+            Signal signal = toSignal(record);
+            if (signal != null && ids.add(MessageDeduplicator.key(signal.event.getCloudEvent()))) {
+                signals.add(signal);
+            }
+        }
+        log.debug("Processing batch of " + records.size() + " records, " + signals.size() + " signals");
+
+        int chunkSize = Math.max(1, transactionSize);
+        for (int i = 0; i < signals.size(); i += chunkSize) {
+            List<Signal> chunk = park(signals.subList(i, Math.min(i + chunkSize, signals.size())));
+            try {
+                signalProcesses(chunk);
+            } catch (Exception e) {
+                log.warn("Error signaling batch of " + chunk.size() + " process instances. Signaling one by one.", e);
+                signalProcessesOneByOne(chunk);
+            }
+        }
+        ack.acknowledge();
+    }
+
+    private List<Signal> park(List<Signal> signals) {
+        if (retryRouter == null) {
+            return signals;
+        }
+        List<Signal> unparked = new ArrayList<>(signals.size());
+        for (Signal signal : signals) {
+            if (!parkIfInRetry(signal)) {
+                unparked.add(signal);
+            }
+        }
+        return unparked;
+    }
+
+    private boolean parkIfInRetry(Signal signal) {
+        if (retryRouter == null || !retryRouter.isParked(signal.record.topic(), signal.event.getIncidentId())) {
+            return false;
+        }
+        retryRouter.park(signal.record.topic(), signal.event.getIncidentId(), signal.event.getCloudEvent());
+        return true;
+    }
+
+    private void signalProcesses(List<Signal> signals) {
+        new TransactionTemplate(transactionManager).execute((TransactionStatus s) -> {
+            signals.forEach(signal -> doSignalProcess(signal.event));
+            return null;
+        });
+    }
+
+    private void signalProcessesOneByOne(List<Signal> signals) {
+        for (Signal signal : signals) {
+            if (parkIfInRetry(signal)) {
+                continue;
+            }
+            try {
+                new TransactionTemplate(transactionManager).execute((TransactionStatus s) -> {
+                    doSignalProcess(signal.event);
+                    return null;
+                });
+            } catch (Exception e) {
+                log.error("Error processing CloudEvent " + signal.event.getCloudEvent(), e);
+                processInstanceIdCache.evict(signal.event.getIncidentId());
+                if (retryRouter == null) {
+                    throw new BatchRecordFailedException(signal.record.topic(), signal.record.partition(), signal.record.offset(), e);
+                }
+                retryRouter.route(signal.record.topic(), signal.event.getIncidentId(), signal.event.getCloudEvent(), 0);
+            }
+        }
+    }
+
+    private void doSignalProcess(MissionEventSignal signal) {
+        deduplicator.markProcessed(signal.getCloudEvent());
+        if (latencyTracker != null) {
+            latencyTracker.signalled(signal.getIncidentId(), signal.getSignal());
+        }
+        Long processId = MissionEventSignal.processInstanceId(signal.getCloudEvent());
+        if (processId != null) {
+            try {
+                processService.signalProcessInstance(processId, signal.getSignal(), null);
+            } catch (ProcessInstanceNotFoundException e) {
+                log.warn("Process instance with id '" + processId + "' for incident '" + signal.getIncidentId() + "' not found.");
+            }
+            return;
+        }
+        Long processInstanceId = processInstanceIdCache.getProcessInstanceId(signal.getIncidentId());
+        if (processInstanceId == null) {
+            log.warn("Process instance with correlationKey '" + signal.getIncidentId() + "' not found.");
+            return;
+        }
+        processService.signalProcessInstance(processInstanceId, signal.getSignal(), null);
+    }
+
+    @Override
+    public String getTopic() {
+        return missionEventDestination;
+    }
+
+    @Override
+    public void retry(CloudEvent cloudEvent) throws Exception {
+        // an earlier attempt may have been processed by the main listener or a retry that timed out after the commit
+        if (deduplicator.isDuplicate(cloudEvent)) {
+            return;
+        }
+        MissionEventSignal signal = MissionEventSignal.of(cloudEvent, payloadCodec);
+        if (signal == null) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).execute((TransactionStatus s) -> {
+            doSignalProcess(signal);
+            return null;
+        });
+    }
+
+    private Signal toSignal(ConsumerRecord<String, CloudEvent> record) {
+        CloudEvent cloudEvent = record.value();
+        if (!MissionEventSignal.accept(cloudEvent, payloadCodec) || deduplicator.isDuplicate(cloudEvent)) {
+            return null;
+        }
+        MissionEventSignal event = MissionEventSignal.of(cloudEvent, payloadCodec);
+        if (event == null) {
+            return null;
+        }
+        log.debug("Processing '" + cloudEvent.getType() + "' message for incident '" + event.getIncidentId() + "' from topic:partition " + record.topic() + ":" + record.partition());
+        return new Signal(event, record);
+    }
+
+    private static class Signal {
+
+        private final MissionEventSignal event;
+
+        private final ConsumerRecord<String, CloudEvent> record;
+
+        Signal(MissionEventSignal event, ConsumerRecord<String, CloudEvent> record) {
+            this.event = event;
+            this.record = record;
+        }
+    }
+}
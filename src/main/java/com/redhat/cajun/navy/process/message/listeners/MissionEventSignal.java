@@ -0,0 +1,110 @@
+package com.redhat.cajun.navy.process.message.listeners;
+
+import java.util.Arrays;
+
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.model.MissionCompletedEvent;
+import com.redhat.cajun.navy.process.message.model.MissionPickedUpEvent;
+import com.redhat.cajun.navy.process.message.model.MissionStartedEvent;
+import io.cloudevents.CloudEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+final class MissionEventSignal {
+
+    private static final Logger log = LoggerFactory.getLogger(MissionEventSignal.class);
+
+    static final String TYPE_MISSION_STARTED_EVENT = "MissionStartedEvent";
+    static final String TYPE_MISSION_PICKEDUP_EVENT = "MissionPickedUpEvent";
+    static final String TYPE_MISSION_COMPLETED_EVENT = "MissionCompletedEvent";
+    static final String[] ACCEPTED_MESSAGE_TYPES = {TYPE_MISSION_STARTED_EVENT, TYPE_MISSION_PICKEDUP_EVENT, TYPE_MISSION_COMPLETED_EVENT};
+
+    static final String SIGNAL_MISSION_STARTED = "MissionStarted";
+    static final String SIGNAL_VICTIM_PICKEDUP = "VictimPickedUp";
+    static final String SIGNAL_VICTIM_DELIVERED = "VictimDelivered";
+
+    static final String PROCESS_ID_EXTENSION = "processid";
+
+    private final String incidentId;
+
+    private final String signal;
+
+    private final CloudEvent cloudEvent;
+
+    private MissionEventSignal(String incidentId, String signal, CloudEvent cloudEvent) {
+        this.incidentId = incidentId;
+        this.signal = signal;
+        this.cloudEvent = cloudEvent;
+    }
+
+    static boolean accept(CloudEvent cloudEvent, CloudEventPayloadCodec payloadCodec) {
+        if (cloudEvent == null) {
+            log.warn("Message is not a CloudEvent. Message is ignored");
+            return false;
+        }
+        String messageType = cloudEvent.getType();
+        if (!(Arrays.asList(ACCEPTED_MESSAGE_TYPES).contains(messageType))) {
+            log.debug("Message with type '" + messageType + "' is ignored");
+            return false;
+        }
+        String contentType = cloudEvent.getDataContentType();
+        if (!payloadCodec.isSupported(contentType)) {
+            log.warn("CloudEvent data content type '" + contentType + "' is not specified or not supported. Message is ignored");
+            return false;
+        }
+        return true;
+    }
+
+    static MissionEventSignal of(CloudEvent cloudEvent, CloudEventPayloadCodec payloadCodec) {
+        String incidentId;
+        String signal;
+        try {
+            switch (cloudEvent.getType()) {
+                case TYPE_MISSION_STARTED_EVENT:
+                    incidentId = payloadCodec.<MissionStartedEvent>decode(cloudEvent).getIncidentId();
+                    signal = SIGNAL_MISSION_STARTED;
+                    break;
+                case TYPE_MISSION_PICKEDUP_EVENT:
+                    incidentId = payloadCodec.<MissionPickedUpEvent>decode(cloudEvent).getIncidentId();
+                    signal = SIGNAL_VICTIM_PICKEDUP;
+                    break;
+                default:
+                    incidentId = payloadCodec.<MissionCompletedEvent>decode(cloudEvent).getIncidentId();
+                    signal = SIGNAL_VICTIM_DELIVERED;
+            }
+        } catch (Exception e) {
+            log.error("Error deserializing " + cloudEvent.getType() + " ", e);
+            return null;
+        }
+        if (incidentId == null || incidentId.isEmpty()) {
+            log.warn("Message contains no value for incidentId. Message cannot be processed!");
+            return null;
+        }
+        return new MissionEventSignal(incidentId, signal, cloudEvent);
+    }
+
+    static Long processInstanceId(CloudEvent cloudEvent) {
+        Object processId = cloudEvent.getExtension(PROCESS_ID_EXTENSION);
+        if (processId == null || processId.toString().isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(processId.toString());
+        } catch (NumberFormatException e) {
+            log.warn("CloudEvent " + cloudEvent.getId() + " has an invalid value '" + processId + "' for extension " + PROCESS_ID_EXTENSION);
+            return null;
+        }
+    }
+
+    String getIncidentId() {
+        return incidentId;
+    }
+
+    String getSignal() {
+        return signal;
+    }
+
+    CloudEvent getCloudEvent() {
+        return cloudEvent;
+    }
+}
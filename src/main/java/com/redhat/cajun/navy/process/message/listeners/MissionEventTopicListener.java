@@ -1,22 +1,20 @@
 package com.redhat.cajun.navy.process.message.listeners;
 
-import java.util.Arrays;
-import java.util.Objects;
-
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.redhat.cajun.navy.process.message.model.MissionCompletedEvent;
-import com.redhat.cajun.navy.process.message.model.MissionPickedUpEvent;
-import com.redhat.cajun.navy.process.message.model.MissionStartedEvent;
+import com.redhat.cajun.navy.process.correlation.ProcessInstanceIdCache;
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.dedup.MessageDeduplicator;
+import com.redhat.cajun.navy.process.message.dispatch.KeyOrderedDispatcher;
+import com.redhat.cajun.navy.process.message.retry.RetryTopicRouter;
+import com.redhat.cajun.navy.process.message.retry.RetryableMessageHandler;
+import com.redhat.cajun.navy.process.metrics.IncidentLatencyTracker;
 import io.cloudevents.CloudEvent;
+import org.jbpm.services.api.ProcessInstanceNotFoundException;
 import org.jbpm.services.api.ProcessService;
-import org.kie.api.runtime.process.ProcessInstance;
-import org.kie.internal.KieInternalServices;
-import org.kie.internal.process.CorrelationKey;
-import org.kie.internal.process.CorrelationKeyFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -28,20 +26,12 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionTemplate;
 
 @Component
-public class MissionEventTopicListener {
+@ConditionalOnProperty(name = "listener.mission-event.batch.enabled", havingValue = "false", matchIfMissing = true)
+public class MissionEventTopicListener implements RetryableMessageHandler {
 
     private static final Logger log = LoggerFactory.getLogger(MissionEventTopicListener.class);
 
-    private static final String TYPE_MISSION_STARTED_EVENT = "MissionStartedEvent";
-    private static final String TYPE_MISSION_PICKEDUP_EVENT = "MissionPickedUpEvent";
-    private static final String TYPE_MISSION_COMPLETED_EVENT = "MissionCompletedEvent";
-    private static final String[] ACCEPTED_MESSAGE_TYPES = {TYPE_MISSION_STARTED_EVENT, TYPE_MISSION_PICKEDUP_EVENT, TYPE_MISSION_COMPLETED_EVENT};
-
-    private static final String SIGNAL_MISSION_STARTED = "MissionStarted";
-    private static final String SIGNAL_VICTIM_PICKEDUP = "VictimPickedUp";
-    private static final String SIGNAL_VICTIM_DELIVERED = "VictimDelivered";
-
-    private final CorrelationKeyFactory correlationKeyFactory = KieInternalServices.Factory.get().newCorrelationKeyFactory();
+    public static final String[] ACCEPTED_MESSAGE_TYPES = MissionEventSignal.ACCEPTED_MESSAGE_TYPES;
 
     @Autowired
     private ProcessService processService;
@@ -49,124 +39,116 @@ public class MissionEventTopicListener {
     @Autowired
     private PlatformTransactionManager transactionManager;
 
+    @Autowired
+    private KeyOrderedDispatcher dispatcher;
+
+    @Autowired
+    private CloudEventPayloadCodec payloadCodec;
+
+    @Autowired
+    private MessageDeduplicator deduplicator;
+
+    @Autowired
+    private ProcessInstanceIdCache processInstanceIdCache;
+
+    @Autowired(required = false)
+    private RetryTopicRouter retryRouter;
+
+    @Autowired(required = false)
+    private IncidentLatencyTracker latencyTracker;
+
+    @Value("${listener.destination.mission-event}")
+    private String missionEventDestination;
+
     @KafkaListener(topics = "${listener.destination.mission-event}")
+    public void onMessage(@Payload(required = false) CloudEvent cloudEvent,
+                          @Header(value = KafkaHeaders.RECEIVED_MESSAGE_KEY, required = false) String key,
+                          @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                          @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
+                          @Header(KafkaHeaders.OFFSET) long offset, Acknowledgment ack) {
+
+        dispatcher.dispatch(topic, partition, offset, KeyOrderedDispatcher.orderingKey(cloudEvent, key), cloudEvent, ack,
+                a -> processMessage(cloudEvent, topic, partition, a));
+    }
+
     public void processMessage(@Payload CloudEvent cloudEvent,
                                @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
                                @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition, Acknowledgment ack) {
 
-        if (!accept(cloudEvent)) {
+        if (!MissionEventSignal.accept(cloudEvent, payloadCodec) || deduplicator.isDuplicate(cloudEvent)) {
             ack.acknowledge();
             return;
         }
-        String messageType = cloudEvent.getType();
-        switch (messageType) {
-            case TYPE_MISSION_STARTED_EVENT:
-                processMissionStartedEvent(cloudEvent, topic, partition, ack);
-                break;
-            case TYPE_MISSION_PICKEDUP_EVENT:
-                processMissionPickedUpEvent(cloudEvent, topic, partition, ack);
-                break;
-            case TYPE_MISSION_COMPLETED_EVENT:
-                processMissionCompletedEvent(cloudEvent, topic, partition, ack);
-                break;
-        }
-    }
-
-    private void processMissionStartedEvent(CloudEvent cloudEvent, String topic, int partition, Acknowledgment ack) {
-        MissionStartedEvent missionStartedEvent;
-        try {
-            missionStartedEvent = new ObjectMapper().readValue(Objects.requireNonNull(cloudEvent.getData()).toBytes(), new TypeReference<MissionStartedEvent>() {});
-        } catch (Exception e) {
-            log.error("Error deserializing MissionStartedEvent ", e);
+        MissionEventSignal signal = MissionEventSignal.of(cloudEvent, payloadCodec);
+        if (signal == null) {
             ack.acknowledge();
             return;
         }
-        try {
-            String incidentId = missionStartedEvent.getIncidentId();
-            log.debug("Processing '" + TYPE_MISSION_STARTED_EVENT + "' message for incident '" + incidentId + "' from topic:partition " + topic + ":" + partition);
-            signalProcess(incidentId, SIGNAL_MISSION_STARTED);
-        } catch (Exception e) {
-            log.error("Error processing CloudEvent " + cloudEvent, e);
-            throw new IllegalStateException(e.getMessage(), e);
-        }
-        ack.acknowledge();
-    }
-
-    private void processMissionPickedUpEvent(CloudEvent cloudEvent, String topic, int partition, Acknowledgment ack) {
-        MissionPickedUpEvent missionPickedUpEvent;
-        try {
-            missionPickedUpEvent = new ObjectMapper().readValue(Objects.requireNonNull(cloudEvent.getData()).toBytes(), new TypeReference<MissionPickedUpEvent>() {});
-        } catch (Exception e) {
-            log.error("Error deserializing MissionPickedUpEvent ", e);
+        if (retryRouter != null && retryRouter.isParked(topic, signal.getIncidentId())) {
+            retryRouter.park(topic, signal.getIncidentId(), cloudEvent);
             ack.acknowledge();
             return;
         }
         try {
-            String incidentId = missionPickedUpEvent.getIncidentId();
-            log.debug("Processing '" + TYPE_MISSION_PICKEDUP_EVENT + "' message for incident '" + incidentId + "' from topic:partition " + topic + ":" + partition);
-            signalProcess(incidentId, SIGNAL_VICTIM_PICKEDUP);
+            log.debug("Processing '" + cloudEvent.getType() + "' message for incident '" + signal.getIncidentId() + "' from topic:partition " + topic + ":" + partition);
+            signalProcess(signal);
         } catch (Exception e) {
             log.error("Error processing CloudEvent " + cloudEvent, e);
-            throw new IllegalStateException(e.getMessage(), e);
+            handleSignalFailure(topic, signal.getIncidentId(), cloudEvent, e);
         }
         ack.acknowledge();
     }
 
-    private void processMissionCompletedEvent(CloudEvent cloudEvent, String topic, int partition, Acknowledgment ack) {
-        MissionCompletedEvent message;
-        try {
-            message = new ObjectMapper().readValue(Objects.requireNonNull(cloudEvent.getData()).toBytes(), new TypeReference<MissionCompletedEvent>() {});
-        } catch (Exception e) {
-            log.error("Error deserializing MissionDeliveredEvent ", e);
-            ack.acknowledge();
+    @Override
+    public String getTopic() {
+        return missionEventDestination;
+    }
+
+    @Override
+    public void retry(CloudEvent cloudEvent) throws Exception {
+        // an earlier attempt may have been processed by the main listener or a retry that timed out after the commit
+        if (deduplicator.isDuplicate(cloudEvent)) {
             return;
         }
-        try {
-            String incidentId = message.getIncidentId();
-            log.debug("Processing '" + TYPE_MISSION_COMPLETED_EVENT + "' message for incident '" + incidentId + "' from topic:partition " + topic + ":" + partition);
-            signalProcess(incidentId, SIGNAL_VICTIM_DELIVERED);
-        } catch (Exception e) {
-            log.error("Error processing CloudEvent " + cloudEvent, e);
-            throw new IllegalStateException(e.getMessage(), e);
+        MissionEventSignal signal = MissionEventSignal.of(cloudEvent, payloadCodec);
+        if (signal != null) {
+            signalProcess(signal);
         }
-        ack.acknowledge();
     }
 
-    private void signalProcess(String incidentId, String signal) {
-        if (incidentId == null || incidentId.isEmpty()) {
-            log.warn("Message contains no value for incidentId. Message cannot be processed!");
-            return;
+    private void handleSignalFailure(String topic, String incidentId, CloudEvent cloudEvent, Exception e) {
+        processInstanceIdCache.evict(incidentId);
+        if (retryRouter == null) {
+            throw new IllegalStateException(e.getMessage(), e);
         }
+        retryRouter.route(topic, incidentId, cloudEvent, 0);
+    }
 
-        CorrelationKey correlationKey = correlationKeyFactory.newCorrelationKey(incidentId);
+    private void signalProcess(MissionEventSignal signal) {
+        String incidentId = signal.getIncidentId();
+        CloudEvent cloudEvent = signal.getCloudEvent();
+        Long processId = MissionEventSignal.processInstanceId(cloudEvent);
         new TransactionTemplate(transactionManager).execute((TransactionStatus s) -> {
-            ProcessInstance processInstance = processService.getProcessInstance(correlationKey);
-            if (processInstance == null) {
+            deduplicator.markProcessed(cloudEvent);
+            if (latencyTracker != null) {
+                latencyTracker.signalled(incidentId, signal.getSignal());
+            }
+            if (processId != null) {
+                try {
+                    processService.signalProcessInstance(processId, signal.getSignal(), null);
+                } catch (ProcessInstanceNotFoundException e) {
+                    log.warn("Process instance with id '" + processId + "' for incident '" + incidentId + "' not found.");
+                }
+                return null;
+            }
+            Long processInstanceId = processInstanceIdCache.getProcessInstanceId(incidentId);
+            if (processInstanceId == null) {
                 log.warn("Process instance with correlationKey '" + incidentId + "' not found.");
                 return null;
             }
-            processService.signalProcessInstance(processInstance.getId(), signal, null);
+            processService.signalProcessInstance(processInstanceId, signal.getSignal(), null);
             return null;
         });
     }
 
-    private boolean accept(CloudEvent cloudEvent) {
-        if (cloudEvent == null) {
-            log.warn("Message is not a CloudEvent. Message is ignored");
-            //TODO: exception logging
-            return false;
-        }
-        String messageType = cloudEvent.getType();
-        if (!(Arrays.asList(ACCEPTED_MESSAGE_TYPES).contains(messageType))) {
-            log.debug("Message with type '" + messageType + "' is ignored");
-            return false;
-        }
-        String contentType = cloudEvent.getDataContentType();
-        if (contentType == null || !(contentType.equalsIgnoreCase("application/json"))) {
-            log.warn("CloudEvent data content type is not specified or not 'application/json'. Message is ignored");
-            return false;
-        }
-        return true;
-    }
-
 }
@@ -2,18 +2,19 @@ package com.redhat.cajun.navy.process.message.listeners;
 
 import java.io.IOException;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cajun.navy.process.correlation.ProcessInstanceIdCache;
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.dedup.MessageDeduplicator;
+import com.redhat.cajun.navy.process.message.dispatch.KeyOrderedDispatcher;
 import com.redhat.cajun.navy.process.message.model.ResponderSetUnavailableEvent;
+import com.redhat.cajun.navy.process.message.retry.RetryTopicRouter;
+import com.redhat.cajun.navy.process.message.retry.RetryableMessageHandler;
 import io.cloudevents.CloudEvent;
 import org.jbpm.services.api.ProcessService;
-import org.kie.api.runtime.process.ProcessInstance;
-import org.kie.internal.KieInternalServices;
-import org.kie.internal.process.CorrelationKey;
-import org.kie.internal.process.CorrelationKeyFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -25,11 +26,11 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionTemplate;
 
 @Component
-public class ResponderSetUnavailableEventMessageListener {
+public class ResponderSetUnavailableEventMessageListener implements RetryableMessageHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ResponderSetUnavailableEventMessageListener.class);
 
-    private final static String TYPE_RESPONDER_SET_UNAVAILABLE_EVENT = "ResponderSetUnavailableEvent";
+    public final static String TYPE_RESPONDER_SET_UNAVAILABLE_EVENT = "ResponderSetUnavailableEvent";
 
     private static final String SIGNAL_RESPONDER_AVAILABLE = "ResponderAvailable";
 
@@ -39,14 +40,39 @@ public class ResponderSetUnavailableEventMessageListener {
     @Autowired
     private PlatformTransactionManager transactionManager;
 
-    private final CorrelationKeyFactory correlationKeyFactory = KieInternalServices.Factory.get().newCorrelationKeyFactory();
+    @Autowired
+    private KeyOrderedDispatcher dispatcher;
+
+    @Autowired
+    private CloudEventPayloadCodec payloadCodec;
+
+    @Autowired
+    private MessageDeduplicator deduplicator;
+
+    @Autowired
+    private ProcessInstanceIdCache processInstanceIdCache;
+
+    @Autowired(required = false)
+    private RetryTopicRouter retryRouter;
+
+    @Value("${listener.destination.responder-updated-event}")
+    private String responderUpdatedEventDestination;
 
     @KafkaListener(topics = "${listener.destination.responder-updated-event}")
+    public void onMessage(@Payload(required = false) CloudEvent cloudEvent, @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
+                          @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                          @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
+                          @Header(KafkaHeaders.OFFSET) long offset, Acknowledgment ack) {
+
+        dispatcher.dispatch(topic, partition, offset, KeyOrderedDispatcher.orderingKey(cloudEvent, key), cloudEvent, ack,
+                a -> processMessage(cloudEvent, key, topic, partition, a));
+    }
+
     public void processMessage(@Payload CloudEvent cloudEvent, @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
                                @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
                                @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition, Acknowledgment ack) {
 
-        if (!accept(cloudEvent)) {
+        if (!accept(cloudEvent) || deduplicator.isDuplicate(cloudEvent)) {
             ack.acknowledge();
             return;
         }
@@ -60,37 +86,70 @@ public class ResponderSetUnavailableEventMessageListener {
             return;
         }
 
+        ResponderSetUnavailableEvent message;
         try {
-            ResponderSetUnavailableEvent message = new ObjectMapper().readValue(cloudEvent.getData().toBytes(), new TypeReference<ResponderSetUnavailableEvent>() {});
+            message = payloadCodec.decode(cloudEvent);
         } catch (IOException e) {
             log.error("CloudEvent data cannot be unmarshalled to ResponderUpdatedEvent object. Message is ignored.");
             ack.acknowledge();
             return;
         }
 
-        try {
-
-            ResponderSetUnavailableEvent message = new ObjectMapper().readValue(cloudEvent.getData().toBytes(), new TypeReference<ResponderSetUnavailableEvent>() {});
-
-            CorrelationKey correlationKey = correlationKeyFactory.newCorrelationKey(incidentId);
-
-            Boolean available = "success".equals(message.getStatus());
-
-            log.debug("Signaling process with correlationkey '" + correlationKey + ". Responder '" + key + "', available '" + available + "'." );
-
-            TransactionTemplate template = new TransactionTemplate(transactionManager);
-            template.execute((TransactionStatus s) -> {
-                ProcessInstance instance = processService.getProcessInstance(correlationKey);
-                processService.signalProcessInstance(instance.getId(), SIGNAL_RESPONDER_AVAILABLE, available);
-                return null;
-            });
+        if (retryRouter != null && retryRouter.isParked(topic, incidentId)) {
+            retryRouter.park(topic, incidentId, cloudEvent);
+            ack.acknowledge();
+            return;
+        }
 
+        try {
+            signalProcess(incidentId, message, key, cloudEvent);
             ack.acknowledge();
         } catch (Exception e) {
             log.error("Error processing CloudEvent " + cloudEvent, e);
-            throw new IllegalStateException(e.getMessage(), e);
+            processInstanceIdCache.evict(incidentId);
+            if (retryRouter == null) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            retryRouter.route(topic, incidentId, cloudEvent, 0);
+            ack.acknowledge();
+        }
+
+    }
+
+    @Override
+    public String getTopic() {
+        return responderUpdatedEventDestination;
+    }
+
+    @Override
+    public void retry(CloudEvent cloudEvent) throws Exception {
+        // an earlier attempt may have been processed by the main listener or a retry that timed out after the commit
+        if (deduplicator.isDuplicate(cloudEvent)) {
+            return;
         }
+        String incidentId = (String) cloudEvent.getExtension("incidentid");
+        if (incidentId == null || incidentId.isEmpty()) {
+            log.warn("CloudEvent contains no extension value for incidentId. Message cannot be processed!");
+            return;
+        }
+        signalProcess(incidentId, payloadCodec.decode(cloudEvent), null, cloudEvent);
+    }
 
+    private void signalProcess(String incidentId, ResponderSetUnavailableEvent message, String key, CloudEvent cloudEvent) {
+        Boolean available = "success".equals(message.getStatus());
+
+        log.debug("Signaling process with correlationkey '" + incidentId + ". Responder '" + key + "', available '" + available + "'." );
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.execute((TransactionStatus s) -> {
+            deduplicator.markProcessed(cloudEvent);
+            Long processInstanceId = processInstanceIdCache.getProcessInstanceId(incidentId);
+            if (processInstanceId == null) {
+                throw new IllegalStateException("Process instance with correlationKey '" + incidentId + "' not found.");
+            }
+            processService.signalProcessInstance(processInstanceId, SIGNAL_RESPONDER_AVAILABLE, available);
+            return null;
+        });
     }
 
     private boolean accept(CloudEvent cloudEvent) {
@@ -105,8 +164,8 @@ public class ResponderSetUnavailableEventMessageListener {
             return false;
         }
         String contentType = cloudEvent.getDataContentType();
-        if (contentType == null || !(contentType.equalsIgnoreCase("application/json"))) {
-            log.warn("CloudEvent data content type is not specified or not 'application/json'. Message is ignored");
+        if (!payloadCodec.isSupported(contentType)) {
+            log.warn("CloudEvent data content type '" + contentType + "' is not specified or not supported. Message is ignored");
             return false;
         }
         if (cloudEvent.getData() == null) {
@@ -2,20 +2,28 @@ package com.redhat.cajun.navy.process.message.model;
 
 import java.net.URI;
 import java.time.OffsetDateTime;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.core.data.PojoCloudEventData;
 
 public class CloudEventBuilder<T>  {
 
+    private static final URI SOURCE = URI.create("emergency-response/process-service");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
     private final io.cloudevents.core.builder.CloudEventBuilder delegate;
 
     public CloudEventBuilder() {
         delegate = io.cloudevents.core.builder.CloudEventBuilder.v1();
-        delegate.withId(UUID.randomUUID().toString());
-        delegate.withSource(URI.create("emergency-response/process-service"));
+        delegate.withId(TimeOrderedUuid.next().toString());
+        delegate.withSource(SOURCE);
         delegate.withTime(OffsetDateTime.now());
         delegate.withDataContentType("application/json");
     }
@@ -26,7 +34,8 @@ public class CloudEventBuilder<T>  {
     }
 
     public CloudEventBuilder<T> withData(T data) {
-        delegate.withData(PojoCloudEventData.wrap(data, d -> new ObjectMapper().writeValueAsBytes(d)));
+        ObjectWriter writer = data == null ? objectMapper.writer() : writers.computeIfAbsent(data.getClass(), objectMapper::writerFor);
+        delegate.withData(PojoCloudEventData.wrap(data, writer::writeValueAsBytes));
         return this;
     }
 
@@ -0,0 +1,80 @@
+package com.redhat.cajun.navy.process.message.model;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ResponderUpdatedEvent {
+
+    private String status;
+
+    private Responder responder;
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Responder getResponder() {
+        return responder;
+    }
+
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Responder {
+
+        private String id;
+
+        private String name;
+
+        private String phoneNumber;
+
+        private Double latitude;
+
+        private Double longitude;
+
+        private Integer boatCapacity;
+
+        private Boolean medicalKit;
+
+        private Boolean available;
+
+        private Boolean person;
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPhoneNumber() {
+            return phoneNumber;
+        }
+
+        public Double getLatitude() {
+            return latitude;
+        }
+
+        public Double getLongitude() {
+            return longitude;
+        }
+
+        public Integer getBoatCapacity() {
+            return boatCapacity;
+        }
+
+        public Boolean getMedicalKit() {
+            return medicalKit;
+        }
+
+        public Boolean getAvailable() {
+            return available;
+        }
+
+        public Boolean getPerson() {
+            return person;
+        }
+    }
+}
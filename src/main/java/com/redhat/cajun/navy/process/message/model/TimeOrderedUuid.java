@@ -0,0 +1,22 @@
+package com.redhat.cajun.navy.process.message.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class TimeOrderedUuid {
+
+    // unix epoch millis in the upper 48 bits, a 12 bit sequence in the lower bits
+    private static final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    private TimeOrderedUuid() {
+    }
+
+    static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long timestampAndSequence = lastTimestampAndSequence.updateAndGet(last -> Math.max(now, last + 1));
+        long mostSigBits = ((timestampAndSequence >>> 12) << 16) | 0x7000L | (timestampAndSequence & 0xfffL);
+        long leastSigBits = (ThreadLocalRandom.current().nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
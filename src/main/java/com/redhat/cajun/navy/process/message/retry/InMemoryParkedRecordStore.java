@@ -0,0 +1,53 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+public class InMemoryParkedRecordStore implements ParkedRecordStore {
+
+    private final Cache<String, Deque<String>> inRetry;
+
+    public InMemoryParkedRecordStore(long expiryMillis) {
+        this.inRetry = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(expiryMillis))
+                .build();
+    }
+
+    @Override
+    public void add(String topic, String key, String id) {
+        inRetry.asMap().compute(topic + "/" + key, (k, ids) -> {
+            Deque<String> result = ids == null ? new ArrayDeque<>() : ids;
+            synchronized (result) {
+                if (!result.contains(id)) {
+                    result.addLast(id);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public void remove(String topic, String key, String id) {
+        inRetry.asMap().computeIfPresent(topic + "/" + key, (k, ids) -> {
+            synchronized (ids) {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            }
+        });
+    }
+
+    @Override
+    public String first(String topic, String key) {
+        Deque<String> ids = inRetry.getIfPresent(topic + "/" + key);
+        if (ids == null) {
+            return null;
+        }
+        synchronized (ids) {
+            return ids.peekFirst();
+        }
+    }
+}
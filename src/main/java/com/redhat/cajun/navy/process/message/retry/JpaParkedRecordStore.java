@@ -0,0 +1,87 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import java.util.List;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// shared by all instances: the retry tiers and the main topic partitions of a key are usually consumed by different instances
+public class JpaParkedRecordStore implements ParkedRecordStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JpaParkedRecordStore.class);
+
+    static final String INSERT = "insert into process_service_retry_parked (topic, record_key, event_id, parked_at) "
+            + "values (:topic, :key, :id, now()) on conflict (topic, record_key, event_id) do nothing";
+
+    static final String DELETE = "delete from process_service_retry_parked where topic = :topic and record_key = :key and event_id = :id";
+
+    static final String FIRST = "select event_id from process_service_retry_parked where topic = :topic and record_key = :key "
+            + "and parked_at > now() - :expiry * interval '1 millisecond' order by id limit 1";
+
+    static final String PURGE = "delete from process_service_retry_parked where parked_at < now() - :expiry * interval '1 millisecond'";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final long expiryMillis;
+
+    private TransactionTemplate transactionTemplate;
+
+    public JpaParkedRecordStore(long expiryMillis) {
+        this.expiryMillis = expiryMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        // called from listeners that may have a process transaction open; parking must not roll back with it
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void add(String topic, String key, String id) {
+        transactionTemplate.execute((TransactionStatus s) -> entityManager.createNativeQuery(INSERT)
+                .setParameter("topic", topic).setParameter("key", key).setParameter("id", id).executeUpdate());
+    }
+
+    @Override
+    public void remove(String topic, String key, String id) {
+        transactionTemplate.execute((TransactionStatus s) -> entityManager.createNativeQuery(DELETE)
+                .setParameter("topic", topic).setParameter("key", key).setParameter("id", id).executeUpdate());
+    }
+
+    @Override
+    public String first(String topic, String key) {
+        return transactionTemplate.execute((TransactionStatus s) -> {
+            @SuppressWarnings("unchecked")
+            List<String> ids = entityManager.createNativeQuery(FIRST)
+                    .setParameter("topic", topic).setParameter("key", key).setParameter("expiry", expiryMillis)
+                    .getResultList();
+            return ids.isEmpty() ? null : ids.get(0);
+        });
+    }
+
+    // records that never came back, e.g. lost when a retry publish failed after they were tracked
+    @Scheduled(fixedDelayString = "${kafka.retry.parking.purge-interval-ms:600000}", initialDelayString = "${kafka.retry.parking.purge-interval-ms:600000}")
+    public void purge() {
+        try {
+            Integer deleted = transactionTemplate.execute((TransactionStatus s) -> entityManager.createNativeQuery(PURGE)
+                    .setParameter("expiry", expiryMillis).executeUpdate());
+            log.debug("Purged " + deleted + " expired parked records");
+        } catch (Exception e) {
+            log.warn("Error purging expired parked records", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.cloudevents.CloudEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+
+public class KafkaRetryPublisher implements RetryPublisher {
+
+    private final KafkaTemplate<String, CloudEvent> kafkaTemplate;
+
+    private final long sendTimeout;
+
+    public KafkaRetryPublisher(KafkaTemplate<String, CloudEvent> kafkaTemplate, long sendTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @Override
+    public void publish(String topic, String key, CloudEvent cloudEvent, Map<String, String> headers) {
+        ProducerRecord<String, CloudEvent> record = new ProducerRecord<>(topic, key, cloudEvent);
+        headers.forEach((k, v) -> record.headers().add(k, v.getBytes(StandardCharsets.UTF_8)));
+        try {
+            kafkaTemplate.send(record).get(sendTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending CloudEvent to topic " + topic, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Error sending CloudEvent to topic " + topic, e);
+        }
+    }
+}
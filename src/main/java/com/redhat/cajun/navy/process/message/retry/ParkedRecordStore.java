@@ -0,0 +1,11 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+public interface ParkedRecordStore {
+
+    void add(String topic, String key, String id);
+
+    void remove(String topic, String key, String id);
+
+    // id of the oldest record in retry for the key, or null
+    String first(String topic, String key);
+}
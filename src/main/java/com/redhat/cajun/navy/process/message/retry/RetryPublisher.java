@@ -0,0 +1,10 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import java.util.Map;
+
+import io.cloudevents.CloudEvent;
+
+public interface RetryPublisher {
+
+    void publish(String topic, String key, CloudEvent cloudEvent, Map<String, String> headers);
+}
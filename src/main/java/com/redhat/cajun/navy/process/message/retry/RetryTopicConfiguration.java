@@ -0,0 +1,55 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.cloudevents.CloudEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+
+@Configuration
+@ConditionalOnProperty(name = "kafka.retry.enabled", havingValue = "true")
+public class RetryTopicConfiguration {
+
+    @Value("${kafka.retry.delays-ms:1000,10000,60000}")
+    private String delays;
+
+    @Value("${kafka.retry.send-timeout-ms:10000}")
+    private long sendTimeout;
+
+    @Value("${kafka.retry.parking.persistent:true}")
+    private boolean persistentParking;
+
+    @Autowired
+    private KafkaTemplate<String, CloudEvent> kafkaTemplate;
+
+    @Autowired
+    private KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, CloudEvent>> kafkaListenerContainerFactory;
+
+    @Bean
+    public ParkedRecordStore parkedRecordStore() {
+        long expiry = RetryTopicRouter.parkingExpiry(retryDelays());
+        return persistentParking ? new JpaParkedRecordStore(expiry) : new InMemoryParkedRecordStore(expiry);
+    }
+
+    @Bean
+    public RetryTopicRouter retryTopicRouter() {
+        return new RetryTopicRouter(new KafkaRetryPublisher(kafkaTemplate, sendTimeout), retryDelays(), parkedRecordStore());
+    }
+
+    @Bean
+    public RetryTopicListener retryTopicListener(List<RetryableMessageHandler> handlers) {
+        return new RetryTopicListener(kafkaListenerContainerFactory, retryTopicRouter(), handlers);
+    }
+
+    private List<Long> retryDelays() {
+        return Arrays.stream(delays.split(",")).map(String::trim).map(Long::valueOf).collect(Collectors.toList());
+    }
+}
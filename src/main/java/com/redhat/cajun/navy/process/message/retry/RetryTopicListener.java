@@ -0,0 +1,136 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.cloudevents.CloudEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+public class RetryTopicListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryTopicListener.class);
+
+    private final KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, CloudEvent>> containerFactory;
+
+    private final RetryTopicRouter router;
+
+    private final Map<String, RetryableMessageHandler> handlers;
+
+    private final List<ConcurrentMessageListenerContainer<String, CloudEvent>> containers = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean running = false;
+
+    public RetryTopicListener(KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, CloudEvent>> containerFactory,
+                              RetryTopicRouter router, List<RetryableMessageHandler> handlers) {
+        this.containerFactory = containerFactory;
+        this.router = router;
+        this.handlers = handlers.stream().collect(Collectors.toMap(RetryableMessageHandler::getTopic, Function.identity()));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || handlers.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("kafka-retry-resume-"));
+        for (int tier = 1; tier <= router.getTiers(); tier++) {
+            int currentTier = tier;
+            String[] topics = handlers.keySet().stream().map(t -> RetryTopicRouter.retryTopic(t, currentTier)).toArray(String[]::new);
+            ConcurrentMessageListenerContainer<String, CloudEvent> container = containerFactory.createContainer(topics);
+            // one record per poll, so that seeking back to a record that is not due yet never skips the rest of a batch
+            Properties consumerProperties = new Properties();
+            consumerProperties.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "1");
+            container.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+            container.setupMessageListener((AcknowledgingConsumerAwareMessageListener<String, CloudEvent>) (record, ack, consumer) -> {
+                long wait = onMessage(currentTier, record, ack);
+                if (wait > 0) {
+                    consumer.seek(new TopicPartition(record.topic(), record.partition()), record.offset());
+                    container.pause();
+                    scheduler.schedule(container::resume, wait, TimeUnit.MILLISECONDS);
+                }
+            });
+            container.start();
+            containers.add(container);
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    long onMessage(int tier, ConsumerRecord<String, CloudEvent> record, Acknowledgment ack) {
+        String topic = header(record, RetryTopicRouter.RETRY_TOPIC_HEADER);
+        RetryableMessageHandler handler = topic == null ? null : handlers.get(topic);
+        if (handler == null || record.value() == null) {
+            log.warn("Record " + record.topic() + ":" + record.partition() + ":" + record.offset() + " cannot be retried. Message is ignored");
+            ack.acknowledge();
+            return 0;
+        }
+        String due = header(record, RetryTopicRouter.RETRY_DUE_HEADER);
+        long wait = due == null ? 0 : Long.parseLong(due) - System.currentTimeMillis();
+        if (wait > 0) {
+            return Math.min(wait, router.getDelay(tier));
+        }
+        String attempt = header(record, RetryTopicRouter.RETRY_ATTEMPT_HEADER);
+        int failedAttempts = attempt == null ? tier : Integer.parseInt(attempt);
+        if (!router.isNext(topic, record.key(), record.value())) {
+            router.requeue(topic, record.key(), record.value(), tier, failedAttempts);
+            ack.acknowledge();
+            return 0;
+        }
+        try {
+            handler.retry(record.value());
+            router.completed(topic, record.key(), record.value());
+            log.info("Retry " + failedAttempts + " of CloudEvent " + record.value().getId() + " succeeded");
+        } catch (Exception e) {
+            log.warn("Retry " + failedAttempts + " of CloudEvent " + record.value().getId() + " failed", e);
+            router.route(topic, record.key(), record.value(), failedAttempts);
+        }
+        ack.acknowledge();
+        return 0;
+    }
+
+    private String header(ConsumerRecord<String, CloudEvent> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
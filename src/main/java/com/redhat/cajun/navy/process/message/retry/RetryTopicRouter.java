@@ -0,0 +1,132 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.cloudevents.CloudEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class RetryTopicRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryTopicRouter.class);
+
+    public static final String RETRY_TOPIC_HEADER = "retry_topic";
+
+    public static final String RETRY_ATTEMPT_HEADER = "retry_attempt";
+
+    public static final String RETRY_DUE_HEADER = "retry_due";
+
+    private final RetryPublisher publisher;
+
+    private final List<Long> delays;
+
+    // ids of the CloudEvents in retry per topic and key, oldest first. Later records for a key wait until the oldest is resolved.
+    private final ParkedRecordStore parked;
+
+    public RetryTopicRouter(RetryPublisher publisher, List<Long> delays) {
+        this(publisher, delays, new InMemoryParkedRecordStore(parkingExpiry(delays)));
+    }
+
+    public RetryTopicRouter(RetryPublisher publisher, List<Long> delays, ParkedRecordStore parked) {
+        this.publisher = publisher;
+        this.delays = delays;
+        this.parked = parked;
+    }
+
+    public static long parkingExpiry(List<Long> delays) {
+        long retryWindow = delays.stream().mapToLong(Long::longValue).sum();
+        return Math.max(60000L, 2 * retryWindow);
+    }
+
+    public static String retryTopic(String topic, int tier) {
+        return topic + "-retry-" + tier;
+    }
+
+    public static String deadLetterTopic(String topic) {
+        return topic + "-dlt";
+    }
+
+    public int getTiers() {
+        return delays.size();
+    }
+
+    public long getDelay(int tier) {
+        return delays.get(tier - 1);
+    }
+
+    public void route(String topic, String key, CloudEvent cloudEvent, int failedAttempts) {
+        int attempt = failedAttempts + 1;
+        if (attempt <= delays.size()) {
+            track(topic, key, cloudEvent.getId());
+            log.info("Sending CloudEvent " + cloudEvent.getId() + " with key '" + key + "' to retry topic " + retryTopic(topic, attempt));
+            publishTracked(topic, key, cloudEvent, attempt, attempt);
+        } else {
+            Map<String, String> headers = new HashMap<>();
+            headers.put(RETRY_TOPIC_HEADER, topic);
+            headers.put(RETRY_ATTEMPT_HEADER, Integer.toString(attempt));
+            log.error("CloudEvent " + cloudEvent.getId() + " with key '" + key + "' failed after " + failedAttempts
+                    + " attempts. Sending to dead-letter topic " + deadLetterTopic(topic));
+            publisher.publish(deadLetterTopic(topic), key, cloudEvent, headers);
+            release(topic, key, cloudEvent.getId());
+        }
+    }
+
+    public boolean isParked(String topic, String key) {
+        return key != null && parked.first(topic, key) != null;
+    }
+
+    public void park(String topic, String key, CloudEvent cloudEvent) {
+        track(topic, key, cloudEvent.getId());
+        log.info("Parking CloudEvent " + cloudEvent.getId() + " with key '" + key + "' behind an earlier record in retry topic " + retryTopic(topic, 1));
+        publishTracked(topic, key, cloudEvent, 1, 0);
+    }
+
+    public boolean isNext(String topic, String key, CloudEvent cloudEvent) {
+        if (key == null) {
+            return true;
+        }
+        String first = parked.first(topic, key);
+        return first == null || first.equals(cloudEvent.getId());
+    }
+
+    public void requeue(String topic, String key, CloudEvent cloudEvent, int tier, int failedAttempts) {
+        log.debug("Requeuing CloudEvent " + cloudEvent.getId() + " with key '" + key + "' on retry topic " + retryTopic(topic, tier));
+        publish(topic, key, cloudEvent, tier, failedAttempts);
+    }
+
+    public void completed(String topic, String key, CloudEvent cloudEvent) {
+        release(topic, key, cloudEvent.getId());
+    }
+
+    private void publish(String topic, String key, CloudEvent cloudEvent, int tier, int failedAttempts) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(RETRY_TOPIC_HEADER, topic);
+        headers.put(RETRY_ATTEMPT_HEADER, Integer.toString(failedAttempts));
+        headers.put(RETRY_DUE_HEADER, Long.toString(System.currentTimeMillis() + getDelay(tier)));
+        publisher.publish(retryTopic(topic, tier), key, cloudEvent, headers);
+    }
+
+    // a record that was tracked but never reached the retry topic would hold back its key until it expires
+    private void publishTracked(String topic, String key, CloudEvent cloudEvent, int tier, int failedAttempts) {
+        try {
+            publish(topic, key, cloudEvent, tier, failedAttempts);
+        } catch (RuntimeException e) {
+            release(topic, key, cloudEvent.getId());
+            throw e;
+        }
+    }
+
+    private void track(String topic, String key, String id) {
+        if (key != null) {
+            parked.add(topic, key, id);
+        }
+    }
+
+    private void release(String topic, String key, String id) {
+        if (key != null) {
+            parked.remove(topic, key, id);
+        }
+    }
+}
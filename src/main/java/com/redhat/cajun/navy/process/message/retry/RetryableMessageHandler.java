@@ -0,0 +1,10 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import io.cloudevents.CloudEvent;
+
+public interface RetryableMessageHandler {
+
+    String getTopic();
+
+    void retry(CloudEvent cloudEvent) throws Exception;
+}
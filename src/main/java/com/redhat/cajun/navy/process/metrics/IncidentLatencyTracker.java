@@ -0,0 +1,146 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class IncidentLatencyTracker implements MeterBinder {
+
+    public enum Stage {
+        REPORTED, RECEIVED, PROCESS_STARTED, ASSIGNED, MISSION_REQUESTED, MISSION_STARTED, VICTIM_DELIVERED
+    }
+
+    private static final Stage[][] INTERVALS = {
+            {Stage.REPORTED, Stage.RECEIVED},
+            {Stage.RECEIVED, Stage.PROCESS_STARTED},
+            {Stage.PROCESS_STARTED, Stage.ASSIGNED},
+            {Stage.ASSIGNED, Stage.MISSION_REQUESTED},
+            {Stage.REPORTED, Stage.MISSION_REQUESTED},
+            {Stage.MISSION_REQUESTED, Stage.MISSION_STARTED},
+            {Stage.MISSION_STARTED, Stage.VICTIM_DELIVERED},
+            {Stage.REPORTED, Stage.VICTIM_DELIVERED}
+    };
+
+    private static final String SIGNAL_MISSION_STARTED = "MissionStarted";
+
+    private static final String SIGNAL_VICTIM_DELIVERED = "VictimDelivered";
+
+    private final Cache<String, long[]> incidents;
+
+    private final Map<Stage, Map<Stage, Timer>> timers = new EnumMap<>(Stage.class);
+
+    private final Map<Stage, AtomicLong> untracked = new EnumMap<>(Stage.class);
+
+    public IncidentLatencyTracker(long maximumSize, Duration expireAfterWrite) {
+        this.incidents = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        for (Stage stage : Stage.values()) {
+            untracked.put(stage, new AtomicLong());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        for (Stage[] interval : INTERVALS) {
+            // percentiles are computed client side on HdrHistogram backed time windows
+            Timer timer = Timer.builder("incident.latency")
+                    .description("Time between two stages of an incident")
+                    .tag("from", interval[0].name().toLowerCase())
+                    .tag("to", interval[1].name().toLowerCase())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(Duration.ofHours(4))
+                    .register(meterRegistry);
+            timers.computeIfAbsent(interval[1], s -> new EnumMap<>(Stage.class)).put(interval[0], timer);
+        }
+        Gauge.builder("incident.latency.tracked", incidents, Cache::estimatedSize)
+                .description("Number of incidents for which stage timestamps are tracked")
+                .register(meterRegistry);
+        // with several instances the timers only cover the incidents received by this one, this shows how much is left out
+        untracked.forEach((stage, count) -> FunctionCounter.builder("incident.latency.untracked", count, AtomicLong::get)
+                .description("Stages reached by incidents that were not received by this instance or no longer tracked")
+                .tag("stage", stage.name().toLowerCase())
+                .register(meterRegistry));
+    }
+
+    public void received(String incidentId, OffsetDateTime reportedTime) {
+        long[] timestamps = new long[Stage.values().length];
+        if (reportedTime != null) {
+            timestamps[Stage.REPORTED.ordinal()] = reportedTime.toInstant().toEpochMilli();
+        }
+        incidents.put(incidentId, timestamps);
+        record(timestamps, Stage.RECEIVED, System.currentTimeMillis());
+    }
+
+    public void mark(String incidentId, Stage stage) {
+        if (incidentId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doMark(incidentId, stage);
+                }
+            });
+        } else {
+            doMark(incidentId, stage);
+        }
+    }
+
+    public void signalled(String incidentId, String signal) {
+        if (SIGNAL_MISSION_STARTED.equals(signal)) {
+            mark(incidentId, Stage.MISSION_STARTED);
+        } else if (SIGNAL_VICTIM_DELIVERED.equals(signal)) {
+            mark(incidentId, Stage.VICTIM_DELIVERED);
+        }
+    }
+
+    private void doMark(String incidentId, Stage stage) {
+        // incidents which were not received by this instance, or evicted, are not tracked
+        long[] timestamps = incidents.getIfPresent(incidentId);
+        if (timestamps == null) {
+            untracked.get(stage).incrementAndGet();
+            return;
+        }
+        record(timestamps, stage, System.currentTimeMillis());
+        if (stage == Stage.VICTIM_DELIVERED) {
+            incidents.invalidate(incidentId);
+        }
+    }
+
+    private void record(long[] timestamps, Stage stage, long now) {
+        Map<Stage, Timer> from = timers.get(stage);
+        synchronized (timestamps) {
+            if (timestamps[stage.ordinal()] != 0) {
+                return;
+            }
+            timestamps[stage.ordinal()] = now;
+            if (from == null) {
+                return;
+            }
+            from.forEach((fromStage, timer) -> {
+                long start = timestamps[fromStage.ordinal()];
+                // the reported time is set by another service, skip intervals made negative by clock skew
+                if (start != 0 && now >= start) {
+                    timer.record(now - start, TimeUnit.MILLISECONDS);
+                }
+            });
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.redhat.cajun.navy.process.metrics;
 
+import java.time.Duration;
+
 import io.micrometer.core.instrument.MeterRegistry;
-import org.jbpm.services.api.RuntimeDataService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,14 +14,45 @@ public class MetricsConfiguration {
     @Autowired
     private MeterRegistry meterRegistry;
 
-    @Autowired
-    private RuntimeDataService runtimeDataService;
+    @Value("${metrics.process.node-timing.maximum-size:10000}")
+    private long nodeTimingMaximumSize;
+
+    @Value("${metrics.process.node-timing.expire-after-access:PT24H}")
+    private Duration nodeTimingExpireAfterAccess;
+
+    @Value("${metrics.incident-latency.maximum-size:10000}")
+    private long incidentLatencyMaximumSize;
+
+    @Value("${metrics.incident-latency.expire-after-write:PT6H}")
+    private Duration incidentLatencyExpireAfterWrite;
 
     @Bean
     public ProcessMetrics processMetrics() {
-        ProcessMetrics processMetrics = new ProcessMetrics(runtimeDataService);
+        ProcessMetrics processMetrics = new ProcessMetrics();
         processMetrics.bindTo(meterRegistry);
         return processMetrics;
     }
 
+    @Bean
+    public ProcessMetricsEventListener processMetricsEventListener() {
+        return new ProcessMetricsEventListener(processMetrics());
+    }
+
+    @Bean
+    public NodeMetricsEventListener nodeMetricsEventListener() {
+        return new NodeMetricsEventListener(meterRegistry, nodeTimingMaximumSize, nodeTimingExpireAfterAccess);
+    }
+
+    @Bean
+    public IncidentLatencyTracker incidentLatencyTracker() {
+        IncidentLatencyTracker tracker = new IncidentLatencyTracker(incidentLatencyMaximumSize, incidentLatencyExpireAfterWrite);
+        tracker.bindTo(meterRegistry);
+        return tracker;
+    }
+
+    @Bean
+    public WorkItemHandlerMetrics workItemHandlerMetrics() {
+        return new WorkItemHandlerMetrics(meterRegistry);
+    }
+
 }
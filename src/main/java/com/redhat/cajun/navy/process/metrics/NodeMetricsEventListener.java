@@ -0,0 +1,93 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.event.process.ProcessNodeLeftEvent;
+import org.kie.api.event.process.ProcessNodeTriggeredEvent;
+import org.kie.api.runtime.process.NodeInstance;
+import org.kie.api.runtime.process.ProcessInstance;
+
+public class NodeMetricsEventListener extends DefaultProcessEventListener {
+
+    static final String OUTCOME_COMPLETED = "completed";
+
+    static final String OUTCOME_ABORTED = "aborted";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    // node instances can be left in another session than the one they were triggered in (wait states),
+    // so trigger times are kept per process instance id and node instance id rather than on the node instance
+    private final Cache<Long, Map<Long, NodeStart>> nodeStarts;
+
+    public NodeMetricsEventListener(MeterRegistry meterRegistry, long maximumSize, Duration expireAfterAccess) {
+        this.meterRegistry = meterRegistry;
+        this.nodeStarts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    @Override
+    public void beforeNodeTriggered(ProcessNodeTriggeredEvent event) {
+        NodeInstance nodeInstance = event.getNodeInstance();
+        nodeStarts.get(event.getProcessInstance().getId(), id -> new ConcurrentHashMap<>())
+                .put(nodeInstance.getId(), new NodeStart(nodeName(nodeInstance), System.nanoTime()));
+    }
+
+    @Override
+    public void afterNodeLeft(ProcessNodeLeftEvent event) {
+        Map<Long, NodeStart> starts = nodeStarts.getIfPresent(event.getProcessInstance().getId());
+        NodeStart start = starts == null ? null : starts.remove(event.getNodeInstance().getId());
+        if (start != null) {
+            record(start, OUTCOME_COMPLETED, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterProcessCompleted(ProcessCompletedEvent event) {
+        Map<Long, NodeStart> starts = nodeStarts.asMap().remove(event.getProcessInstance().getId());
+        if (starts == null || event.getProcessInstance().getState() != ProcessInstance.STATE_ABORTED) {
+            return;
+        }
+        long now = System.nanoTime();
+        starts.values().forEach(start -> record(start, OUTCOME_ABORTED, now));
+    }
+
+    private void record(NodeStart start, String outcome, long now) {
+        timers.computeIfAbsent(start.node + "/" + outcome, k -> Timer.builder("process.node")
+                .description("Time between a process node being triggered and left")
+                .tag("node", start.node)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(now - start.nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String nodeName(NodeInstance nodeInstance) {
+        String name = nodeInstance.getNodeName();
+        return name == null || name.isEmpty() ? "node-" + nodeInstance.getNodeId() : name;
+    }
+
+    private static class NodeStart {
+
+        private final String node;
+
+        private final long nanos;
+
+        NodeStart(String node, long nanos) {
+            this.node = node;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -1,72 +1,92 @@
 package com.redhat.cajun.navy.process.metrics;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.binder.MeterBinder;
-import org.jbpm.services.api.RuntimeDataService;
+import org.kie.api.runtime.process.ProcessInstance;
 
 public class ProcessMetrics implements MeterBinder {
 
     private final Iterable<Tag> tags;
 
-    private RuntimeDataService runtimeDataService;
+    private final AtomicLong total = new AtomicLong();
 
-    public ProcessMetrics(RuntimeDataService runtimeDataService) {
-        this(runtimeDataService, Collections.emptyList());
+    private final Map<Integer, AtomicLong> states = new HashMap<>();
+
+    public ProcessMetrics() {
+        this(Collections.emptyList());
     }
 
-    public ProcessMetrics(RuntimeDataService runtimeDataService, Iterable<Tag> tags) {
-        this.runtimeDataService = runtimeDataService;
+    public ProcessMetrics(Iterable<Tag> tags) {
         this.tags = tags;
+        states.put(ProcessInstance.STATE_PENDING, new AtomicLong());
+        states.put(ProcessInstance.STATE_ACTIVE, new AtomicLong());
+        states.put(ProcessInstance.STATE_COMPLETED, new AtomicLong());
+        states.put(ProcessInstance.STATE_ABORTED, new AtomicLong());
+        states.put(ProcessInstance.STATE_SUSPENDED, new AtomicLong());
     }
 
-
     @Override
     public void bindTo(MeterRegistry meterRegistry) {
 
-        Gauge.builder("process.instances", runtimeDataService,
-                value -> runtimeDataService.getProcessInstances(null) == null ? 0
-                        : runtimeDataService.getProcessInstances(null).size())
+        Gauge.builder("process.instances", total, AtomicLong::get)
                 .tags(tags)
                 .description("Number of process instances")
                 .register(meterRegistry);
 
-        Gauge.builder("process.instances.active", runtimeDataService,
-                value -> runtimeDataService.getProcessInstances(Collections.singletonList(1), null, null) == null ? 0
-                        : runtimeDataService.getProcessInstances(Collections.singletonList(1), null, null).size())
+        Gauge.builder("process.instances.active", states.get(ProcessInstance.STATE_ACTIVE), AtomicLong::get)
                 .tags(tags)
                 .description("Number of active process instances")
                 .register(meterRegistry);
 
-        Gauge.builder("process.instances.pending", runtimeDataService,
-                value -> runtimeDataService.getProcessInstances(Collections.singletonList(0), null, null) == null ? 0
-                        : runtimeDataService.getProcessInstances(Collections.singletonList(0), null, null).size())
+        Gauge.builder("process.instances.pending", states.get(ProcessInstance.STATE_PENDING), AtomicLong::get)
                 .tags(tags)
                 .description("Number of pending process instances")
                 .register(meterRegistry);
 
-        Gauge.builder("process.instances.suspended", runtimeDataService,
-                value -> runtimeDataService.getProcessInstances(Collections.singletonList(4), null, null) == null ? 0
-                        : runtimeDataService.getProcessInstances(Collections.singletonList(4), null, null).size())
+        Gauge.builder("process.instances.suspended", states.get(ProcessInstance.STATE_SUSPENDED), AtomicLong::get)
                 .tags(tags)
                 .description("Number of suspended process instances")
                 .register(meterRegistry);
 
-        Gauge.builder("process.instances.aborted", runtimeDataService,
-                value -> runtimeDataService.getProcessInstances(Collections.singletonList(3), null, null) == null ? 0
-                        : runtimeDataService.getProcessInstances(Collections.singletonList(3), null, null).size())
+        Gauge.builder("process.instances.aborted", states.get(ProcessInstance.STATE_ABORTED), AtomicLong::get)
                 .tags(tags)
                 .description("Number of aborted process instances")
                 .register(meterRegistry);
 
-        Gauge.builder("process.instances.completed", runtimeDataService,
-                value -> runtimeDataService.getProcessInstances(Collections.singletonList(2), null, null) == null ? 0
-                        : runtimeDataService.getProcessInstances(Collections.singletonList(2), null, null).size())
+        Gauge.builder("process.instances.completed", states.get(ProcessInstance.STATE_COMPLETED), AtomicLong::get)
                 .tags(tags)
                 .description("Number of completed process instances")
                 .register(meterRegistry);
     }
+
+    public void processStarted() {
+        total.incrementAndGet();
+        states.get(ProcessInstance.STATE_ACTIVE).incrementAndGet();
+    }
+
+    public void processCompleted(int state) {
+        AtomicLong counter = states.get(state);
+        if (counter == null) {
+            return;
+        }
+        states.get(ProcessInstance.STATE_ACTIVE).decrementAndGet();
+        counter.incrementAndGet();
+    }
+
+    public void reconcile(Map<Integer, Long> counts) {
+        long sum = 0;
+        for (Map.Entry<Integer, AtomicLong> state : states.entrySet()) {
+            long count = counts.getOrDefault(state.getKey(), 0L);
+            state.getValue().set(count);
+            sum += count;
+        }
+        total.set(sum);
+    }
 }
@@ -0,0 +1,40 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import org.kie.api.event.process.DefaultProcessEventListener;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.event.process.ProcessStartedEvent;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ProcessMetricsEventListener extends DefaultProcessEventListener {
+
+    private final ProcessMetrics processMetrics;
+
+    public ProcessMetricsEventListener(ProcessMetrics processMetrics) {
+        this.processMetrics = processMetrics;
+    }
+
+    @Override
+    public void beforeProcessStarted(ProcessStartedEvent event) {
+        afterCommit(processMetrics::processStarted);
+    }
+
+    @Override
+    public void afterProcessCompleted(ProcessCompletedEvent event) {
+        int state = event.getProcessInstance().getState();
+        afterCommit(() -> processMetrics.processCompleted(state));
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        } else {
+            runnable.run();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProcessMetricsReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessMetricsReconciler.class);
+
+    static final String COUNT_BY_STATUS_QUERY = "select status, count(*) from processinstancelog group by status";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProcessMetrics processMetrics;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${metrics.process.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = entityManager.createNativeQuery(COUNT_BY_STATUS_QUERY).getResultList();
+            Map<Integer, Long> counts = new HashMap<>();
+            for (Object[] row : rows) {
+                counts.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+            }
+            processMetrics.reconcile(counts);
+            log.debug("Reconciled process instance counts: " + counts);
+        } catch (Exception e) {
+            log.warn("Error reconciling process instance counts", e);
+        }
+    }
+}
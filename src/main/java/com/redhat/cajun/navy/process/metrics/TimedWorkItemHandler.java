@@ -0,0 +1,48 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Timer;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.runtime.process.WorkItemManager;
+import org.kie.internal.runtime.Cacheable;
+
+class TimedWorkItemHandler implements WorkItemHandler, Cacheable {
+
+    private final WorkItemHandler delegate;
+
+    private final Timer success;
+
+    private final Timer error;
+
+    TimedWorkItemHandler(WorkItemHandler delegate, Timer success, Timer error) {
+        this.delegate = delegate;
+        this.success = success;
+        this.error = error;
+    }
+
+    @Override
+    public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
+        long start = System.nanoTime();
+        Timer timer = error;
+        try {
+            delegate.executeWorkItem(workItem, manager);
+            timer = success;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void abortWorkItem(WorkItem workItem, WorkItemManager manager) {
+        delegate.abortWorkItem(workItem, manager);
+    }
+
+    @Override
+    public void close() {
+        if (delegate instanceof Cacheable) {
+            ((Cacheable) delegate).close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.kie.api.runtime.process.WorkItemHandler;
+
+public class WorkItemHandlerMetrics {
+
+    static final String OUTCOME_SUCCESS = "success";
+
+    static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public WorkItemHandlerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public WorkItemHandler timed(String name, WorkItemHandler handler) {
+        if (handler == null || handler instanceof TimedWorkItemHandler) {
+            return handler;
+        }
+        return new TimedWorkItemHandler(handler, timer(name, OUTCOME_SUCCESS), timer(name, OUTCOME_ERROR));
+    }
+
+    private Timer timer(String name, String outcome) {
+        return timers.computeIfAbsent(name + "/" + outcome, k -> Timer.builder("process.workitem.handler")
+                .description("Time spent in executeWorkItem of a work item handler")
+                .tag("handler", name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
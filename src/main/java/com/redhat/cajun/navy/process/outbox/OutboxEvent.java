@@ -1,5 +1,6 @@
 package com.redhat.cajun.navy.process.outbox;
 
+import java.time.Instant;
 import java.util.UUID;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -32,9 +33,15 @@ public class OutboxEvent {
 
     @Lob
     @Type(type = "org.hibernate.type.TextType")
-    @NotNull
     private String payload;
 
+    @Column(name = "payload_bytes")
+    @Type(type = "org.hibernate.type.BinaryType")
+    private byte[] payloadBytes;
+
+    @Column(name = "payload_encoding")
+    private String payloadEncoding;
+
     @Column(name="ce_specversion")
     @NotNull
     private String ceSpecVersion;
@@ -54,6 +61,16 @@ public class OutboxEvent {
     @Column(name="ce_incidentid")
     private String ceIncidentId;
 
+    @Column(name="ce_processid")
+    private String ceProcessId;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    // assigned by the database on insert, orders the events of an aggregate where created_at ties
+    @Column(name = "seq", insertable = false, updatable = false)
+    private Long seq;
+
     OutboxEvent() {
     }
 
@@ -97,6 +114,22 @@ public class OutboxEvent {
         this.payload = payload;
     }
 
+    public byte[] getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    public void setPayloadBytes(byte[] payloadBytes) {
+        this.payloadBytes = payloadBytes;
+    }
+
+    public String getPayloadEncoding() {
+        return payloadEncoding;
+    }
+
+    public void setPayloadEncoding(String payloadEncoding) {
+        this.payloadEncoding = payloadEncoding;
+    }
+
     public String getCeSpecVersion() {
         return ceSpecVersion;
     }
@@ -136,4 +169,24 @@ public class OutboxEvent {
     public void setCeIncidentId(String ceIncidentId) {
         this.ceIncidentId = ceIncidentId;
     }
+
+    public String getCeProcessId() {
+        return ceProcessId;
+    }
+
+    public void setCeProcessId(String ceProcessId) {
+        this.ceProcessId = ceProcessId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
 }
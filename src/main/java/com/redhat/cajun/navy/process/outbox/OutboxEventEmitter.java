@@ -1,21 +1,120 @@
 package com.redhat.cajun.navy.process.outbox;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.types.Time;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Component
 public class OutboxEventEmitter {
 
+    static final String MODE_RELAY = "relay";
+
+    static final String FORMAT_BINARY = "binary";
+
+    static final String ENCODING_TEXT = "text";
+
+    static final String ENCODING_BINARY = "binary";
+
+    static final String ENCODING_GZIP = "gzip";
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.mode:cdc}")
+    private String mode;
+
+    @Value("${outbox.payload.format:text}")
+    private String payloadFormat;
+
+    @Value("${outbox.payload.compression-threshold-bytes:1024}")
+    private int compressionThreshold;
+
+    private DistributionSummary batchSize;
+
+    @PostConstruct
+    public void init() {
+        if (meterRegistry != null) {
+            batchSize = DistributionSummary.builder("outbox.transaction.batch.size")
+                    .description("Number of outbox events written per transaction")
+                    .register(meterRegistry);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
     public void emitEvent(OutboxEvent event) {
-        entityManager.persist(event);
-        entityManager.remove(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(Collections.singletonList(event));
+            return;
+        }
+        List<OutboxEvent> pending = (List<OutboxEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<OutboxEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // a REQUIRES_NEW transaction suspends this one and must start with its own list
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxEventEmitter.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(OutboxEventEmitter.this, events);
+                }
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxEventEmitter.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void write(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (OutboxEvent event : events) {
+            entityManager.persist(event);
+        }
+        if (!MODE_RELAY.equalsIgnoreCase(mode)) {
+            for (OutboxEvent event : events) {
+                entityManager.remove(event);
+            }
+        }
+        if (batchSize != null) {
+            batchSize.record(events.size());
+        }
     }
 
     public void emitCloudEvent(CloudEvent cloudEvent) {
@@ -23,17 +122,45 @@ public class OutboxEventEmitter {
         event.setAggregateId((String) cloudEvent.getExtension("aggregateid"));
         event.setAggregateType((String) cloudEvent.getExtension("aggregatetype"));
         event.setType(cloudEvent.getType());
-        event.setPayload(new String(cloudEvent.getData().toBytes()));
+        setPayload(event, cloudEvent.getData().toBytes(), cloudEvent.getDataContentType());
         event.setCeDataContentType(cloudEvent.getDataContentType());
         event.setCeSource(cloudEvent.getSource().toString());
         event.setCeTime(Time.writeTime(cloudEvent.getTime()));
-        if (cloudEvent.getExtension("incidentid") != null) {
-            event.setCeIncidentId((String) cloudEvent.getExtension("incidentid"));
-        } else {
-            event.setCeIncidentId("");
-        }
+        Object incidentId = cloudEvent.getExtension("incidentid");
+        event.setCeIncidentId(incidentId != null ? (String) incidentId : "");
+        Object processId = cloudEvent.getExtension("processid");
+        event.setCeProcessId(processId != null ? (String) processId : "");
         event.setCeSpecVersion(cloudEvent.getSpecVersion().toString());
+        event.setCreatedAt(Instant.now());
         emitEvent(event);
     }
 
-}
\ No newline at end of file
+    private void setPayload(OutboxEvent event, byte[] data, String contentType) {
+        // payloads which are not json are always stored as bytes, whatever the configured format
+        boolean text = contentType == null || CloudEventPayloadCodec.CONTENT_TYPE_JSON.equalsIgnoreCase(contentType);
+        if (text && !FORMAT_BINARY.equalsIgnoreCase(payloadFormat)) {
+            event.setPayload(new String(data, StandardCharsets.UTF_8));
+            event.setPayloadEncoding(ENCODING_TEXT);
+        } else if (compressionThreshold >= 0 && data.length > compressionThreshold) {
+            event.setPayloadBytes(gzip(data));
+            event.setPayloadEncoding(ENCODING_GZIP);
+        } else {
+            event.setPayloadBytes(data);
+            event.setPayloadEncoding(ENCODING_BINARY);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Outbox payload cannot be compressed", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,316 @@
+package com.redhat.cajun.navy.process.outbox;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.types.Time;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.concurrent.ListenableFuture;
+
+@Component
+@ConditionalOnProperty(name = "outbox.mode", havingValue = "relay")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    static final String PARTITIONS_QUERY = "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+            + "join pg_class p on p.oid = i.inhparent where p.relname = 'process_service_outbox'";
+
+    private static final String PARTITION_PREFIX = "process_service_outbox_p";
+
+    private static final String DEFAULT_PARTITION = "process_service_outbox_default";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final long PARTITION_LOCK_KEY = 0x6f7574626f78L;
+
+    // advisory locks (RELAY_LOCK_CLASS, bucket): an aggregate always hashes to the same bucket, and a bucket is relayed by one instance at a time
+    private static final int RELAY_LOCK_CLASS = 0x6f7872;
+
+    static final String CLAIM_BUCKETS_QUERY = "select b from (select distinct abs(mod(hashtext(aggregateid), :buckets)) as b "
+            + "from (select aggregateid from process_service_outbox order by seq limit :limit) o) c "
+            + "where pg_try_advisory_xact_lock(" + RELAY_LOCK_CLASS + ", b)";
+
+    static final String CLAIMED_EVENTS_QUERY = "select * from process_service_outbox where abs(mod(hashtext(aggregateid), :buckets)) in (:claimed) "
+            + "order by seq limit :limit for update skip locked";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private KafkaTemplate<String, CloudEvent> kafkaTemplate;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.buckets:64}")
+    private int buckets;
+
+    @Value("${outbox.relay.poll-interval-ms:500}")
+    private long pollInterval;
+
+    @Value("${outbox.relay.partitions.maintenance-interval-ms:3600000}")
+    private long maintenanceInterval;
+
+    @Value("${outbox.relay.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeout;
+
+    @Value("${outbox.relay.partitions.enabled:true}")
+    private boolean partitionsEnabled;
+
+    @Value("${outbox.relay.partitions.days-ahead:3}")
+    private int partitionDaysAhead;
+
+    @Value("${outbox.relay.partitions.retention-days:2}")
+    private int partitionRetentionDays;
+
+    private final AtomicLong published = new AtomicLong();
+
+    private volatile long lagMillis;
+
+    private DistributionSummary batchSizes;
+
+    // not the shared scheduler: a poll can relay several batches and would hold up the other scheduled tasks
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (meterRegistry != null) {
+            FunctionCounter.builder("outbox.relay.published", published, AtomicLong::get)
+                    .description("Number of outbox events published by the relay")
+                    .register(meterRegistry);
+            Gauge.builder("outbox.relay.lag.seconds", this, r -> r.lagMillis / 1000.0)
+                    .description("Age of the oldest outbox event claimed in the last relay poll")
+                    .register(meterRegistry);
+            batchSizes = DistributionSummary.builder("outbox.relay.batch.size")
+                    .description("Number of outbox events claimed per relay batch")
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-relay-"));
+        scheduler.scheduleWithFixedDelay(this::maintainPartitions, 0, maintenanceInterval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::poll, 1000, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void poll() {
+        try {
+            for (int i = 0; i < maxBatchesPerPoll; i++) {
+                Integer relayed = new TransactionTemplate(transactionManager).execute((TransactionStatus s) -> relayBatch());
+                if (relayed == null || relayed < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error relaying outbox events. Unpublished events will be retried on the next poll.", e);
+        }
+    }
+
+    // Delivery is at-least-once: a crash between publish and delete publishes the batch again with the same
+    // CloudEvent ids. Instances share the work by bucket of aggregate id, so the events of an aggregate stay in order.
+    int relayBatch() {
+        @SuppressWarnings("unchecked")
+        List<Number> claimed = entityManager.createNativeQuery(CLAIM_BUCKETS_QUERY)
+                .setParameter("buckets", buckets)
+                .setParameter("limit", batchSize)
+                .getResultList();
+        if (claimed.isEmpty()) {
+            lagMillis = 0;
+            return 0;
+        }
+        @SuppressWarnings("unchecked")
+        List<OutboxEvent> events = entityManager.createNativeQuery(CLAIMED_EVENTS_QUERY, OutboxEvent.class)
+                .setParameter("buckets", buckets)
+                .setParameter("claimed", claimed.stream().map(Number::intValue).collect(Collectors.toList()))
+                .setParameter("limit", batchSize)
+                .getResultList();
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Instant oldest = events.get(0).getCreatedAt();
+        lagMillis = oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis());
+
+        List<ListenableFuture<SendResult<String, CloudEvent>>> futures = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            futures.add(kafkaTemplate.send(new ProducerRecord<>(event.getAggregateType(), event.getAggregateId(), cloudEvent(event))));
+        }
+        kafkaTemplate.flush();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeout);
+        for (ListenableFuture<SendResult<String, CloudEvent>> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while publishing outbox events", e);
+            } catch (Exception e) {
+                throw new IllegalStateException("Error publishing outbox events: " + e.getMessage(), e);
+            }
+        }
+
+        entityManager.createQuery("delete from OutboxEvent e where e.id in :ids")
+                .setParameter("ids", events.stream().map(OutboxEvent::getId).collect(Collectors.toList()))
+                .executeUpdate();
+        published.addAndGet(events.size());
+        if (batchSizes != null) {
+            batchSizes.record(events.size());
+        }
+        log.debug("Relayed " + events.size() + " outbox events");
+        return events.size();
+    }
+
+    public void maintainPartitions() {
+        if (!partitionsEnabled) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).execute((TransactionStatus s) -> {
+                Object locked = entityManager.createNativeQuery("select pg_try_advisory_xact_lock(" + PARTITION_LOCK_KEY + ")").getSingleResult();
+                if (!Boolean.TRUE.equals(locked)) {
+                    return null;
+                }
+                LocalDate today = LocalDate.now(ZoneOffset.UTC);
+                for (int i = 0; i <= partitionDaysAhead; i++) {
+                    LocalDate day = today.plusDays(i);
+                    String from = "'" + day + " 00:00:00+00'";
+                    String to = "'" + day.plusDays(1) + " 00:00:00+00'";
+                    // postgres cannot attach a range that still has rows in the default partition, retry once the relay drained them
+                    if (!entityManager.createNativeQuery("select 1 from " + DEFAULT_PARTITION + " where created_at >= " + from
+                            + " and created_at < " + to + " limit 1").getResultList().isEmpty()) {
+                        log.info("Outbox default partition still contains events of " + day + ", partition is created later");
+                        continue;
+                    }
+                    entityManager.createNativeQuery("create table if not exists " + PARTITION_PREFIX + day.format(PARTITION_SUFFIX)
+                            + " partition of process_service_outbox for values from (" + from + ") to (" + to + ")")
+                            .executeUpdate();
+                }
+                @SuppressWarnings("unchecked")
+                List<String> partitions = entityManager.createNativeQuery(PARTITIONS_QUERY).getResultList();
+                LocalDate cutoff = today.minusDays(partitionRetentionDays);
+                for (String partition : partitions) {
+                    LocalDate day = partitionDay(partition);
+                    if (day == null || !day.isBefore(cutoff)) {
+                        continue;
+                    }
+                    if (!entityManager.createNativeQuery("select 1 from " + partition + " limit 1").getResultList().isEmpty()) {
+                        log.warn("Outbox partition " + partition + " still contains unpublished events and is not dropped");
+                        continue;
+                    }
+                    entityManager.createNativeQuery("drop table " + partition).executeUpdate();
+                    log.info("Dropped outbox partition " + partition);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Error maintaining outbox partitions", e);
+        }
+    }
+
+    static LocalDate partitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static CloudEvent cloudEvent(OutboxEvent event) {
+        CloudEventBuilder builder = CloudEventBuilder.v1()
+                .withId(event.getId().toString())
+                .withType(event.getType())
+                .withSource(URI.create(event.getCeSource()))
+                .withTime(Time.parseTime(event.getCeTime()))
+                .withDataContentType(event.getCeDataContentType())
+                .withData(payload(event))
+                .withExtension("aggregatetype", event.getAggregateType())
+                .withExtension("aggregateid", event.getAggregateId());
+        if (event.getCeIncidentId() != null && !event.getCeIncidentId().isEmpty()) {
+            builder.withExtension("incidentid", event.getCeIncidentId());
+        }
+        if (event.getCeProcessId() != null && !event.getCeProcessId().isEmpty()) {
+            builder.withExtension("processid", event.getCeProcessId());
+        }
+        return builder.build();
+    }
+
+    static byte[] payload(OutboxEvent event) {
+        if (OutboxEventEmitter.ENCODING_GZIP.equals(event.getPayloadEncoding())) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(event.getPayloadBytes()))) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(event.getPayloadBytes().length * 4);
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return out.toByteArray();
+            } catch (IOException e) {
+                throw new IllegalStateException("Outbox payload of event " + event.getId() + " cannot be decompressed", e);
+            }
+        }
+        if (OutboxEventEmitter.ENCODING_BINARY.equals(event.getPayloadEncoding())) {
+            return event.getPayloadBytes();
+        }
+        return event.getPayload().getBytes(StandardCharsets.UTF_8);
+    }
+}
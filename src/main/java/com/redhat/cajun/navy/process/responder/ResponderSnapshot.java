@@ -0,0 +1,204 @@
+package com.redhat.cajun.navy.process.responder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.redhat.cajun.navy.rules.model.Responder;
+
+public class ResponderSnapshot {
+
+    static final byte AVAILABLE = 1;
+    static final byte MEDICAL_KIT = 2;
+    static final byte PERSON = 4;
+
+    private volatile Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile Queue<Update> recorded;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // starts recording updates, so that the ones that arrive while a refresh is in progress survive the swap
+    public void beginRefresh() {
+        swapLock.writeLock().lock();
+        try {
+            recorded = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    public void cancelRefresh() {
+        swapLock.writeLock().lock();
+        try {
+            recorded = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    public void replace(Map<String, Entry> snapshot) {
+        swapLock.writeLock().lock();
+        try {
+            Map<String, Entry> replacement = new ConcurrentHashMap<>(snapshot);
+            if (recorded != null) {
+                recorded.forEach(update -> update.applyTo(replacement));
+                recorded = null;
+            }
+            entries = replacement;
+            ready = true;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    public void update(String id, String name, String phoneNumber, Double latitude, Double longitude, Integer boatCapacity,
+                       Boolean medicalKit, Boolean available, Boolean person) {
+        Update update = new Update(id, name, phoneNumber, latitude, longitude, boatCapacity, medicalKit, available, person);
+        swapLock.readLock().lock();
+        try {
+            update.applyTo(entries);
+            Queue<Update> updates = recorded;
+            if (updates != null) {
+                updates.add(update);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public List<Responder> availableResponders(int limit) {
+        List<Responder> responders = new ArrayList<>();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (responders.size() >= limit) {
+                break;
+            }
+            Entry entry = e.getValue();
+            if ((entry.flags & AVAILABLE) == 0) {
+                continue;
+            }
+            Responder responder = new Responder();
+            responder.setId(e.getKey());
+            responder.setFullname(entry.name);
+            responder.setPhoneNumber(entry.phoneNumber);
+            responder.setLatitude(BigDecimal.valueOf(entry.latitude));
+            responder.setLongitude(BigDecimal.valueOf(entry.longitude));
+            responder.setBoatCapacity(entry.boatCapacity);
+            responder.setHasMedical((entry.flags & MEDICAL_KIT) != 0);
+            responder.setPerson((entry.flags & PERSON) != 0);
+            responders.add(responder);
+        }
+        return responders;
+    }
+
+    private static byte flag(byte flags, byte flag, Boolean value) {
+        if (value == null) {
+            return flags;
+        }
+        return (byte) (value ? flags | flag : flags & ~flag);
+    }
+
+    public static Entry entry(String name, String phoneNumber, double latitude, double longitude, int boatCapacity,
+                              boolean medicalKit, boolean available, boolean person) {
+        byte flags = 0;
+        flags = flag(flags, AVAILABLE, available);
+        flags = flag(flags, MEDICAL_KIT, medicalKit);
+        flags = flag(flags, PERSON, person);
+        return new Entry(name, phoneNumber, latitude, longitude, boatCapacity, flags);
+    }
+
+    private static final class Update {
+
+        private final String id;
+
+        private final String name;
+
+        private final String phoneNumber;
+
+        private final Double latitude;
+
+        private final Double longitude;
+
+        private final Integer boatCapacity;
+
+        private final Boolean medicalKit;
+
+        private final Boolean available;
+
+        private final Boolean person;
+
+        Update(String id, String name, String phoneNumber, Double latitude, Double longitude, Integer boatCapacity,
+               Boolean medicalKit, Boolean available, Boolean person) {
+            this.id = id;
+            this.name = name;
+            this.phoneNumber = phoneNumber;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.boatCapacity = boatCapacity;
+            this.medicalKit = medicalKit;
+            this.available = available;
+            this.person = person;
+        }
+
+        void applyTo(Map<String, Entry> entries) {
+            entries.compute(id, (key, current) -> {
+                byte flags = current == null ? 0 : current.flags;
+                flags = flag(flags, AVAILABLE, available);
+                flags = flag(flags, MEDICAL_KIT, medicalKit);
+                flags = flag(flags, PERSON, person);
+                if (current == null) {
+                    if ((flags & AVAILABLE) == 0 || latitude == null || longitude == null) {
+                        return null;
+                    }
+                    return new Entry(name, phoneNumber, latitude, longitude, boatCapacity == null ? 0 : boatCapacity, flags);
+                }
+                return new Entry(name == null ? current.name : name,
+                        phoneNumber == null ? current.phoneNumber : phoneNumber,
+                        latitude == null ? current.latitude : latitude,
+                        longitude == null ? current.longitude : longitude,
+                        boatCapacity == null ? current.boatCapacity : boatCapacity,
+                        flags);
+            });
+        }
+    }
+
+    public static final class Entry {
+
+        private final String name;
+
+        private final String phoneNumber;
+
+        private final double latitude;
+
+        private final double longitude;
+
+        private final int boatCapacity;
+
+        private final byte flags;
+
+        Entry(String name, String phoneNumber, double latitude, double longitude, int boatCapacity, byte flags) {
+            this.name = name;
+            this.phoneNumber = phoneNumber;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.boatCapacity = boatCapacity;
+            this.flags = flags;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.redhat.cajun.navy.process.responder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "responder.snapshot.enabled", havingValue = "true")
+public class ResponderSnapshotConfiguration {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean
+    public ResponderSnapshot responderSnapshot() {
+        ResponderSnapshot responderSnapshot = new ResponderSnapshot();
+        Gauge.builder("responder.snapshot.size", responderSnapshot, ResponderSnapshot::size)
+                .description("Number of responders in the local responder snapshot")
+                .register(meterRegistry);
+        return responderSnapshot;
+    }
+}
@@ -0,0 +1,94 @@
+package com.redhat.cajun.navy.process.responder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.model.ResponderUpdatedEvent;
+import com.redhat.cajun.navy.process.wih.GetRespondersRestWorkItemHandler;
+import io.cloudevents.CloudEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "responder.snapshot.enabled", havingValue = "true")
+public class ResponderSnapshotListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponderSnapshotListener.class);
+
+    private static final String TYPE_RESPONDER_UPDATED_EVENT = "ResponderUpdatedEvent";
+    private static final String TYPE_RESPONDER_SET_UNAVAILABLE_EVENT = "ResponderSetUnavailableEvent";
+    public static final String[] ACCEPTED_MESSAGE_TYPES = {TYPE_RESPONDER_UPDATED_EVENT, TYPE_RESPONDER_SET_UNAVAILABLE_EVENT};
+
+    @Autowired
+    private ResponderSnapshot responderSnapshot;
+
+    @Autowired
+    private GetRespondersRestWorkItemHandler respondersHandler;
+
+    @Autowired
+    private CloudEventPayloadCodec payloadCodec;
+
+    @Value("${responder.snapshot.bootstrap-limit:10000}")
+    private int bootstrapLimit;
+
+    @KafkaListener(topics = "${listener.destination.responder-updated-event}",
+            groupId = "${kafka.group-id}-responder-snapshot-${responder.snapshot.instance-id:${HOSTNAME:local}}",
+            properties = "auto.offset.reset=latest")
+    public void onMessage(@Payload CloudEvent cloudEvent, Acknowledgment ack) {
+        if (cloudEvent != null && Arrays.asList(ACCEPTED_MESSAGE_TYPES).contains(cloudEvent.getType())) {
+            try {
+                apply(cloudEvent);
+            } catch (Exception e) {
+                log.warn("Error applying CloudEvent " + cloudEvent.getId() + " to the responder snapshot", e);
+            }
+        }
+        ack.acknowledge();
+    }
+
+    void apply(CloudEvent cloudEvent) throws Exception {
+        ResponderUpdatedEvent event = payloadCodec.decode(cloudEvent, ResponderUpdatedEvent.class);
+        if (!"success".equals(event.getStatus()) || event.getResponder() == null || event.getResponder().getId() == null) {
+            return;
+        }
+        ResponderUpdatedEvent.Responder r = event.getResponder();
+        Boolean available = r.getAvailable();
+        if (available == null && TYPE_RESPONDER_SET_UNAVAILABLE_EVENT.equals(cloudEvent.getType())) {
+            available = false;
+        }
+        responderSnapshot.update(r.getId(), r.getName(), r.getPhoneNumber(), r.getLatitude(), r.getLongitude(),
+                r.getBoatCapacity(), r.getMedicalKit(), available, r.getPerson());
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${responder.snapshot.refresh-interval-ms:300000}")
+    public void refresh() {
+        responderSnapshot.beginRefresh();
+        try {
+            List<GetRespondersRestWorkItemHandler.Responder> responders = respondersHandler.fetchAvailableResponders(bootstrapLimit);
+            Map<String, ResponderSnapshot.Entry> entries = new HashMap<>();
+            for (GetRespondersRestWorkItemHandler.Responder r : responders) {
+                if (r.getLatitude() == null || r.getLongitude() == null) {
+                    continue;
+                }
+                entries.put(Long.toString(r.getId()), ResponderSnapshot.entry(r.getName(), r.getPhoneNumber(),
+                        r.getLatitude().doubleValue(), r.getLongitude().doubleValue(), r.getBoatCapacity(),
+                        r.isMedicalKit(), r.isAvailable(), r.isPerson()));
+            }
+            responderSnapshot.replace(entries);
+            log.debug("Refreshed responder snapshot with " + entries.size() + " responders");
+        } catch (Exception e) {
+            responderSnapshot.cancelRefresh();
+            log.warn("Error refreshing responder snapshot", e);
+        }
+    }
+}
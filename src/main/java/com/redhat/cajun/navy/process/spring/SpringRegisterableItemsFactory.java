@@ -1,14 +1,30 @@
 package com.redhat.cajun.navy.process.spring;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.redhat.cajun.navy.process.metrics.WorkItemHandlerMetrics;
+import org.kie.api.event.process.ProcessEventListener;
 import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.manager.RuntimeEngine;
+import org.kie.api.runtime.process.WorkItemHandler;
 import org.springframework.context.ApplicationContext;
 
 public class SpringRegisterableItemsFactory extends org.jbpm.springboot.services.SpringRegisterableItemsFactory {
 
     private volatile Boolean initialized = null;
 
+    private volatile List<ProcessEventListener> processEventListeners = null;
+
+    private volatile List<WorkItemHandlerMetrics> workItemHandlerMetrics = null;
+
+    private final ApplicationContext context;
+
     public SpringRegisterableItemsFactory(ApplicationContext context, KieContainer kieContainer, String ksessionName) {
         super(context, kieContainer, ksessionName);
+        this.context = context;
     }
 
     @Override
@@ -23,4 +39,53 @@ public class SpringRegisterableItemsFactory extends org.jbpm.springboot.services
             }
         }
     }
+
+    @Override
+    public List<ProcessEventListener> getProcessEventListeners(RuntimeEngine runtime) {
+        List<ProcessEventListener> listeners = new ArrayList<>(super.getProcessEventListeners(runtime));
+        for (ProcessEventListener listener : springProcessEventListeners()) {
+            if (!listeners.contains(listener)) {
+                listeners.add(listener);
+            }
+        }
+        return listeners;
+    }
+
+    @Override
+    public Map<String, WorkItemHandler> getWorkItemHandlers(RuntimeEngine runtime) {
+        Map<String, WorkItemHandler> handlers = super.getWorkItemHandlers(runtime);
+        List<WorkItemHandlerMetrics> metrics = workItemHandlerMetrics();
+        if (metrics.isEmpty()) {
+            return handlers;
+        }
+        Map<String, WorkItemHandler> timedHandlers = new HashMap<>();
+        handlers.forEach((name, handler) -> timedHandlers.put(name, metrics.get(0).timed(name, handler)));
+        return timedHandlers;
+    }
+
+    private List<WorkItemHandlerMetrics> workItemHandlerMetrics() {
+        List<WorkItemHandlerMetrics> result = workItemHandlerMetrics;
+        if (result == null) {
+            synchronized (this) {
+                if (workItemHandlerMetrics == null) {
+                    workItemHandlerMetrics = new ArrayList<>(context.getBeansOfType(WorkItemHandlerMetrics.class).values());
+                }
+                result = workItemHandlerMetrics;
+            }
+        }
+        return result;
+    }
+
+    private List<ProcessEventListener> springProcessEventListeners() {
+        List<ProcessEventListener> result = processEventListeners;
+        if (result == null) {
+            synchronized (this) {
+                if (processEventListeners == null) {
+                    processEventListeners = new ArrayList<>(context.getBeansOfType(ProcessEventListener.class).values());
+                }
+                result = processEventListeners;
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,134 @@
+package com.redhat.cajun.navy.process.wih;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+@Component("AssignmentLookupService")
+public class AssignmentLookupWorkItemHandler implements AsyncWorkItemHandler {
+
+    private static Logger log = LoggerFactory.getLogger(AssignmentLookupWorkItemHandler.class);
+
+    @Autowired
+    private GetIncidentPriorityRestWorkItemHandler incidentPriorityHandler;
+
+    @Autowired
+    private GetRespondersRestWorkItemHandler respondersHandler;
+
+    @Autowired
+    private GetSheltersRestWorkItemHandler sheltersHandler;
+
+    @Autowired(required = false)
+    private AsyncWorkItemExecutor asyncExecutor;
+
+    @Value("${assignment.lookup.threads:12}")
+    private int threads;
+
+    @Value("${assignment.lookup.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${assignment.lookup.timeout-ms:5000}")
+    private long timeout;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("assignment-lookup-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
+
+        Incident incident = incident(workItem);
+        if (asyncExecutor != null) {
+            asyncExecutor.execute(workItem, manager, this);
+            return;
+        }
+        manager.completeWorkItem(workItem.getId(), results(incident));
+    }
+
+    @Override
+    public CompletionStage<Map<String, Object>> lookup(WorkItem workItem) {
+        return CompletableFuture.completedFuture(results(incident(workItem)));
+    }
+
+    private Incident incident(WorkItem workItem) {
+        Object incidentObj = workItem.getParameter("Incident");
+        if (!(incidentObj instanceof Incident)) {
+            throw new IllegalStateException("Parameter 'Incident' cannot be null and must be of type com.redhat.cajun.navy.rules.model.Incident");
+        }
+        return (Incident) incidentObj;
+    }
+
+    private Map<String, Object> results(Incident incident) {
+        Supplier<Object> defaultIncidentPriority = () -> GetIncidentPriorityRestWorkItemHandler.defaultIncidentPriority(incident);
+        CompletableFuture<Object> incidentPriority = supply(() -> incidentPriorityHandler.getIncidentPriority(incident),
+                "incident priority service", defaultIncidentPriority);
+        CompletableFuture<Object> responders = supply(() -> respondersHandler.getResponders(), "responder service", Responders::new);
+        CompletableFuture<Object> destinations = supply(() -> sheltersHandler.getShelters(), "disaster service", Destinations::new);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        Map<String, Object> results = new HashMap<>();
+        results.put("IncidentPriority", join(incidentPriority, deadline, "incident priority service", defaultIncidentPriority));
+        results.put("Responders", join(responders, deadline, "responder service", Responders::new));
+        results.put("destinations", join(destinations, deadline, "disaster service", Destinations::new));
+        return results;
+    }
+
+    private CompletableFuture<Object> supply(Supplier<Object> supplier, String service, Supplier<Object> fallback) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            // never run the call on the caller thread, that would block the process engine for the full call
+            log.warn("Assignment lookup pool is saturated, not calling " + service + ". Using default result.");
+            return CompletableFuture.completedFuture(fallback.get());
+        }
+    }
+
+    private Object join(CompletableFuture<Object> future, long deadline, String service, Supplier<Object> fallback) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return fallback.get();
+        } catch (Exception e) {
+            log.error("Exception when calling " + service + ". Using default result.", e);
+            future.cancel(true);
+            return fallback.get();
+        }
+    }
+
+    @Override
+    public void abortWorkItem(WorkItem workItem, WorkItemManager manager) {
+
+    }
+}
@@ -0,0 +1,248 @@
+package com.redhat.cajun.navy.process.wih;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.jbpm.services.api.ProcessService;
+import org.jbpm.services.api.WorkItemNotFoundException;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+@ConditionalOnProperty(name = "wih.async.enabled", havingValue = "true")
+public class AsyncWorkItemExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncWorkItemExecutor.class);
+
+    // claims the pending work items that no other instance holds a lease on, so that each is dispatched by one instance only
+    static final String CLAIM_PENDING_WORK_ITEMS_QUERY = "with claimed as ("
+            + "insert into process_service_async_claim (workitemid, claimed_until) "
+            + "select workitemid, now() + :lease * interval '1 millisecond' from workiteminfo where name in (:names) and creationdate < :cutoff "
+            + "on conflict (workitemid) do update set claimed_until = excluded.claimed_until where process_service_async_claim.claimed_until < now() "
+            + "returning workitemid) "
+            + "select w.workitemid, w.name from workiteminfo w join claimed c on c.workitemid = w.workitemid";
+
+    static final String RELEASE_COMPLETED_CLAIMS_QUERY = "delete from process_service_async_claim c "
+            + "where not exists (select 1 from workiteminfo w where w.workitemid = c.workitemid)";
+
+    @Autowired
+    private ProcessService processService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${wih.async.threads:10}")
+    private int threads;
+
+    @Value("${wih.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${wih.async.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${wih.async.retry-backoff-ms:1000}")
+    private long retryBackoff;
+
+    @Value("${wih.async.stale-after-ms:120000}")
+    private long staleAfter;
+
+    private ExecutorService executor;
+
+    private ScheduledExecutorService scheduler;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("async-work-item-"));
+        scheduler = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("async-work-item-retry-"));
+        // completions can run on a thread that still has the committed process transaction bound, e.g. in afterCompletion
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public void execute(WorkItem workItem, WorkItemManager manager, AsyncWorkItemHandler handler) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                manager.completeWorkItem(workItem.getId(), handler.lookup(workItem).toCompletableFuture().join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    dispatch(workItem, handler);
+                }
+            }
+        });
+    }
+
+    // picks up work items left pending by a crash after commit, a full queue or an instance that went away.
+    // Each instance only dispatches the work items it claimed; a claim runs out after wih.async.stale-after-ms.
+    @Scheduled(initialDelayString = "${wih.async.sweep-interval-ms:60000}", fixedDelayString = "${wih.async.sweep-interval-ms:60000}")
+    public void sweep() {
+        Map<String, AsyncWorkItemHandler> handlers = context.getBeansOfType(AsyncWorkItemHandler.class);
+        if (handlers.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows;
+        try {
+            rows = transactionTemplate.execute((TransactionStatus s) -> {
+                entityManager.createNativeQuery(RELEASE_COMPLETED_CLAIMS_QUERY).executeUpdate();
+                @SuppressWarnings("unchecked")
+                List<Object[]> result = entityManager.createNativeQuery(CLAIM_PENDING_WORK_ITEMS_QUERY)
+                        .setParameter("lease", staleAfter)
+                        .setParameter("names", new ArrayList<>(handlers.keySet()))
+                        .setParameter("cutoff", new Timestamp(System.currentTimeMillis() - staleAfter))
+                        .getResultList();
+                return result;
+            });
+        } catch (Exception e) {
+            log.warn("Error claiming pending async work items", e);
+            return;
+        }
+        for (Object[] row : rows) {
+            long workItemId = ((Number) row[0]).longValue();
+            if (inFlight.contains(workItemId)) {
+                continue;
+            }
+            try {
+                WorkItem workItem = processService.getWorkItem(workItemId);
+                if (workItem != null) {
+                    log.info("Dispatching pending work item " + workItemId + " '" + row[1] + "'");
+                    dispatch(workItem, handlers.get(row[1].toString()));
+                }
+            } catch (Exception e) {
+                log.warn("Error dispatching pending work item " + workItemId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    void dispatch(WorkItem workItem, AsyncWorkItemHandler handler) {
+        if (inFlight.add(workItem.getId())) {
+            submit(workItem.getId(), () -> run(workItem, handler, 1));
+        }
+    }
+
+    private void run(WorkItem workItem, AsyncWorkItemHandler handler, int attempt) {
+        CompletionStage<Map<String, Object>> results;
+        try {
+            results = handler.lookup(workItem);
+        } catch (Exception e) {
+            retry(workItem.getId(), attempt, e, () -> run(workItem, handler, attempt + 1));
+            return;
+        }
+        results.whenComplete((workItemResults, e) -> {
+            if (e != null) {
+                retry(workItem.getId(), attempt, e, () -> run(workItem, handler, attempt + 1));
+            } else {
+                submit(workItem.getId(), () -> complete(workItem.getId(), workItemResults, attempt));
+            }
+        });
+    }
+
+    private void complete(long workItemId, Map<String, Object> workItemResults, int attempt) {
+        try {
+            transactionTemplate.execute((TransactionStatus s) -> {
+                processService.completeWorkItem(workItemId, workItemResults);
+                return null;
+            });
+            inFlight.remove(workItemId);
+        } catch (WorkItemNotFoundException e) {
+            log.warn("Work item " + workItemId + " could not be completed: " + e.getMessage());
+            inFlight.remove(workItemId);
+        } catch (Exception e) {
+            retry(workItemId, attempt, e, () -> complete(workItemId, workItemResults, attempt + 1));
+        }
+    }
+
+    private void retry(long workItemId, int attempt, Throwable e, Runnable next) {
+        if (attempt >= maxAttempts) {
+            log.error("Error executing work item " + workItemId + " after " + attempt + " attempts. Aborting work item.", e);
+            abort(workItemId);
+            return;
+        }
+        long delay = retryBackoff << Math.min(attempt - 1, 16);
+        log.warn("Error executing work item " + workItemId + ": " + e.getMessage() + ". Retrying in " + delay + " ms");
+        try {
+            scheduler.schedule(() -> submit(workItemId, next), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException re) {
+            inFlight.remove(workItemId);
+        }
+    }
+
+    private void abort(long workItemId) {
+        try {
+            transactionTemplate.execute((TransactionStatus s) -> {
+                processService.abortWorkItem(workItemId);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Work item " + workItemId + " could not be aborted: " + e.getMessage());
+        } finally {
+            inFlight.remove(workItemId);
+        }
+    }
+
+    // a full queue must not push the work back on the caller, which can be the engine or a Kafka consumer thread
+    private void submit(long workItemId, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(workItemId);
+            if (!executor.isShutdown()) {
+                log.warn("Async work item executor is saturated. Work item " + workItemId + " is left pending for the sweep.");
+            }
+        }
+    }
+}
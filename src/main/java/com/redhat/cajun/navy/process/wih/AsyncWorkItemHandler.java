@@ -0,0 +1,13 @@
+package com.redhat.cajun.navy.process.wih;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+
+public interface AsyncWorkItemHandler extends WorkItemHandler {
+
+    // must only depend on the work item parameters: it is called again for work items left pending by a failure or a restart
+    CompletionStage<Map<String, Object>> lookup(WorkItem workItem);
+}
@@ -2,8 +2,10 @@ package com.redhat.cajun.navy.process.wih;
 
 import javax.annotation.PostConstruct;
 
+import com.redhat.cajun.navy.process.metrics.IncidentLatencyTracker;
 import com.redhat.cajun.navy.rules.model.Incident;
 import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Status;
 import org.jbpm.process.workitem.bpmn2.BusinessRuleTaskHandler;
 import org.jbpm.process.workitem.core.AbstractLogOrThrowWorkItemHandler;
 import org.kie.api.runtime.process.WorkItem;
@@ -11,6 +13,7 @@ import org.kie.api.runtime.process.WorkItemManager;
 import org.kie.internal.runtime.Cacheable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -21,6 +24,9 @@ public class BusinessRuleTaskHandlerWrapper extends AbstractLogOrThrowWorkItemHa
 
     private BusinessRuleTaskHandler businessRuleTaskHandler;
 
+    @Autowired(required = false)
+    private IncidentLatencyTracker latencyTracker;
+
     @Value("${mission.assignment.rules.groupid}")
     private String groupId;
 
@@ -45,6 +51,9 @@ public class BusinessRuleTaskHandlerWrapper extends AbstractLogOrThrowWorkItemHa
         businessRuleTaskHandler.executeWorkItem(workItem, manager);
         Mission mission = (Mission) workItem.getResult("Mission");
         log.debug("Assignment status for incident '" + incident.getId() + "': " + mission.getStatus().name());
+        if (latencyTracker != null && mission.getStatus() == Status.ASSIGNED) {
+            latencyTracker.mark(incident.getId(), IncidentLatencyTracker.Stage.ASSIGNED);
+        }
     }
 
     @Override
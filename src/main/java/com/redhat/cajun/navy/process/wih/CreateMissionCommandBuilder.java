@@ -37,6 +37,7 @@ public class CreateMissionCommandBuilder {
                 .withData(command)
                 .withExtension("aggregatetype", messageTypeAndDestination.getRight())
                 .withExtension("aggregateid", mission.getIncidentId())
+                .withExtension("processid", (String) processId)
                 .build();
     }
 
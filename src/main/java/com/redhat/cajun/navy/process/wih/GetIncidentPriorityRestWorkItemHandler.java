@@ -1,28 +1,48 @@
 package com.redhat.cajun.navy.process.wih;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
+import com.redhat.cajun.navy.process.http.CallNotPermittedException;
+import com.redhat.cajun.navy.process.http.RequestBatcher;
+import com.redhat.cajun.navy.process.http.ServiceResilience;
 import com.redhat.cajun.navy.rules.model.Incident;
 import com.redhat.cajun.navy.rules.model.IncidentPriority;
 import org.kie.api.runtime.process.WorkItem;
-import org.kie.api.runtime.process.WorkItemHandler;
 import org.kie.api.runtime.process.WorkItemManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 @Component("IncidentPriorityService")
-public class GetIncidentPriorityRestWorkItemHandler implements WorkItemHandler {
+public class GetIncidentPriorityRestWorkItemHandler implements AsyncWorkItemHandler {
 
     private static Logger log = LoggerFactory.getLogger(GetIncidentPriorityRestWorkItemHandler.class);
 
+    private static final String SERVICE = "incident-priority-service";
+
     @Value("${incident-priority.service.scheme}")
     private String serviceScheme;
 
@@ -32,38 +52,209 @@ public class GetIncidentPriorityRestWorkItemHandler implements WorkItemHandler {
     @Value("${incident-priority.service.incident-priority-path}")
     private String incidentPriorityPath;
 
+    @Value("${incident-priority.service.bulk-priority-path:}")
+    private String bulkPriorityPath;
+
+    @Value("${incident-priority.batch.max-size:50}")
+    private int batchMaxSize;
+
+    @Value("${incident-priority.batch.window-ms:10}")
+    private long batchWindow;
+
+    @Value("${incident-priority.batch.threads:4}")
+    private int batchThreads;
+
+    @Value("${incident-priority.batch.timeout-ms:5000}")
+    private long batchTimeout;
+
+    @Value("${incident-priority.batch.bulk-reprobe-interval-ms:300000}")
+    private long bulkReprobeInterval;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired(required = false)
+    private ServiceResilience resilience;
+
+    @Autowired(required = false)
+    private AsyncWorkItemExecutor asyncExecutor;
+
+    private RequestBatcher<String, RestIncidentPriority> batcher;
+
+    private volatile long bulkProbeAt = 0;
+
+    @PostConstruct
+    public void init() {
+        if (bulkPriorityPath != null && !bulkPriorityPath.isEmpty()) {
+            batcher = new RequestBatcher<>(this::fetchIncidentPriorities, batchMaxSize, batchWindow, batchThreads, "incident-priority-batch-");
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
     @Override
     public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
 
+        Incident incident = incident(workItem);
+        if (asyncExecutor != null) {
+            asyncExecutor.execute(workItem, manager, this);
+            return;
+        }
+        manager.completeWorkItem(workItem.getId(), results(getIncidentPriority(incident)));
+    }
+
+    // a batched lookup completes from the batch callback, no thread waits for the batch
+    @Override
+    public CompletionStage<Map<String, Object>> lookup(WorkItem workItem) {
+        Incident incident = incident(workItem);
+        if (batcher != null) {
+            return incidentPriority(incident).thenApply(this::results);
+        }
+        return CompletableFuture.completedFuture(results(getIncidentPriority(incident)));
+    }
+
+    private Incident incident(WorkItem workItem) {
         Object incidentObj = workItem.getParameter("Incident");
         if (!(incidentObj instanceof Incident)) {
             throw new IllegalStateException("Parameter 'Incident' cannot be null and must be of type com.redhat.cajun.navy.rules.model.Incident");
         }
-        Incident incident = (Incident) incidentObj;
-        RestTemplate restTemplate = new RestTemplate();
-        IncidentPriority incidentPriority;
-        try {
-            RestIncidentPriority ip = restTemplate.exchange(serviceScheme + "://" + serviceUrl + incidentPriorityPath,
-                    HttpMethod.GET, null, new ParameterizedTypeReference<RestIncidentPriority>() {}, incident.getId()).getBody();
-            log.debug("Incident Priority for incident '" + ip.incidentId + "': Priority = " + ip.priority + ", Average = " + ip.average + ", Escalated = " + ip.escalated);
-            incidentPriority = new IncidentPriority();
-            incidentPriority.setIncidentId(ip.incidentId);
-            incidentPriority.setPriority(new BigDecimal(ip.priority));
-            incidentPriority.setAveragePriority(new BigDecimal(ip.average));
-            incidentPriority.setIncidents(new BigDecimal(ip.incidents));
-            incidentPriority.setEscalated(ip.escalated);
-            incidentPriority.setEscalatedIncidents(new BigDecimal(ip.escalatedIncidents));
-        } catch (HttpClientErrorException e) {
-            log.error("Http Exception when calling incident priority service - response code : " + e.getRawStatusCode(), e);
-            incidentPriority = new IncidentPriority();
-            incidentPriority.setIncidentId(incident.getId());
-            incidentPriority.setPriority(new BigDecimal(0));
-            incidentPriority.setAveragePriority(new BigDecimal(0));
-            incidentPriority.setIncidents(new BigDecimal(0));
-        }
+        return (Incident) incidentObj;
+    }
+
+    private Map<String, Object> results(IncidentPriority incidentPriority) {
         Map<String, Object> results = new HashMap<>();
         results.put("IncidentPriority", incidentPriority);
-        manager.completeWorkItem(workItem.getId(), results);
+        return results;
+    }
+
+    IncidentPriority getIncidentPriority(Incident incident) {
+        if (batcher != null) {
+            // without the async executor the work item has to be completed on the engine thread, so wait for the batch
+            try {
+                return incidentPriority(incident).get(batchTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while looking up incident priority for incident '" + incident.getId() + "'", e);
+            } catch (TimeoutException e) {
+                log.warn("Timed out after " + batchTimeout + " ms looking up incident priority for incident '" + incident.getId() + "'. Using default priority.");
+                return defaultIncidentPriority(incident);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        try {
+            return toIncidentPriority(fetchIncidentPriority(incident.getId()));
+        } catch (RuntimeException e) {
+            return recover(incident, e);
+        }
+    }
+
+    CompletableFuture<IncidentPriority> incidentPriority(Incident incident) {
+        return batcher.submit(incident.getId())
+                .thenApply(ip -> ip == null ? defaultIncidentPriority(incident) : toIncidentPriority(ip))
+                .exceptionally(e -> recover(incident, e));
+    }
+
+    // shared by the single and the batched lookups: client errors and an open circuit fall back to the default priority, anything else fails the work item
+    private IncidentPriority recover(Incident incident, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof HttpClientErrorException) {
+            log.error("Http Exception when calling incident priority service - response code : " + ((HttpClientErrorException) cause).getRawStatusCode(), cause);
+            return defaultIncidentPriority(incident);
+        }
+        if (cause instanceof CallNotPermittedException) {
+            log.warn(cause.getMessage() + ". Using default priority for incident '" + incident.getId() + "'.");
+            return defaultIncidentPriority(incident);
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    // a failed per-incident lookup only fails the lookup of that incident, not the whole batch
+    Map<String, CompletionStage<RestIncidentPriority>> fetchIncidentPriorities(Collection<String> incidentIds) {
+        Map<String, CompletionStage<RestIncidentPriority>> priorities = new HashMap<>();
+        if (System.currentTimeMillis() >= bulkProbeAt) {
+            try {
+                List<RestIncidentPriority> response = call(false, () -> restTemplate.exchange(serviceScheme + "://" + serviceUrl + bulkPriorityPath,
+                        HttpMethod.POST, new HttpEntity<>(new ArrayList<>(incidentIds)),
+                        new ParameterizedTypeReference<List<RestIncidentPriority>>() {}).getBody());
+                if (response != null) {
+                    response.forEach(ip -> priorities.put(ip.incidentId, CompletableFuture.completedFuture(ip)));
+                }
+                log.debug("Fetched incident priorities for " + incidentIds.size() + " incidents in one bulk call");
+                return priorities;
+            } catch (HttpStatusCodeException e) {
+                if (e.getStatusCode() != HttpStatus.NOT_FOUND && e.getStatusCode() != HttpStatus.METHOD_NOT_ALLOWED
+                        && e.getStatusCode() != HttpStatus.NOT_IMPLEMENTED) {
+                    throw e;
+                }
+                log.warn("Incident priority service has no bulk endpoint - response code : " + e.getRawStatusCode()
+                        + ". Falling back to per-incident lookups for " + bulkReprobeInterval + " ms.");
+                bulkProbeAt = System.currentTimeMillis() + bulkReprobeInterval;
+            }
+        }
+        CallNotPermittedException notPermitted = null;
+        for (String incidentId : incidentIds) {
+            CompletableFuture<RestIncidentPriority> priority = new CompletableFuture<>();
+            if (notPermitted != null) {
+                priority.completeExceptionally(notPermitted);
+            } else {
+                try {
+                    priority.complete(fetchIncidentPriority(incidentId));
+                } catch (CallNotPermittedException e) {
+                    // the circuit is open, do not call the service for the rest of the batch
+                    notPermitted = e;
+                    priority.completeExceptionally(e);
+                } catch (RuntimeException e) {
+                    priority.completeExceptionally(e);
+                }
+            }
+            priorities.put(incidentId, priority);
+        }
+        return priorities;
+    }
+
+    private RestIncidentPriority fetchIncidentPriority(String incidentId) {
+        return call(true, () -> restTemplate.exchange(serviceScheme + "://" + serviceUrl + incidentPriorityPath,
+                HttpMethod.GET, null, new ParameterizedTypeReference<RestIncidentPriority>() {}, incidentId).getBody());
+    }
+
+    private IncidentPriority toIncidentPriority(RestIncidentPriority ip) {
+        log.debug("Incident Priority for incident '" + ip.incidentId + "': Priority = " + ip.priority + ", Average = " + ip.average + ", Escalated = " + ip.escalated);
+        IncidentPriority incidentPriority = new IncidentPriority();
+        incidentPriority.setIncidentId(ip.incidentId);
+        incidentPriority.setPriority(new BigDecimal(ip.priority));
+        incidentPriority.setAveragePriority(new BigDecimal(ip.average));
+        incidentPriority.setIncidents(new BigDecimal(ip.incidents));
+        incidentPriority.setEscalated(ip.escalated);
+        incidentPriority.setEscalatedIncidents(new BigDecimal(ip.escalatedIncidents));
+        return incidentPriority;
+    }
+
+    static IncidentPriority defaultIncidentPriority(Incident incident) {
+        IncidentPriority incidentPriority = new IncidentPriority();
+        incidentPriority.setIncidentId(incident.getId());
+        incidentPriority.setPriority(new BigDecimal(0));
+        incidentPriority.setAveragePriority(new BigDecimal(0));
+        incidentPriority.setIncidents(new BigDecimal(0));
+        return incidentPriority;
+    }
+
+    private <T> T call(boolean idempotent, Supplier<T> call) {
+        return resilience == null ? call.get() : resilience.execute(SERVICE, idempotent, call);
     }
 
     @Override
@@ -1,17 +1,24 @@
 package com.redhat.cajun.navy.process.wih;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import com.redhat.cajun.navy.process.http.CallNotPermittedException;
+import com.redhat.cajun.navy.process.http.ServiceResilience;
+import com.redhat.cajun.navy.process.http.SingleFlight;
+import com.redhat.cajun.navy.process.responder.ResponderSnapshot;
 import com.redhat.cajun.navy.rules.model.Responders;
 import org.kie.api.runtime.process.WorkItem;
-import org.kie.api.runtime.process.WorkItemHandler;
 import org.kie.api.runtime.process.WorkItemManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
@@ -23,10 +30,12 @@ import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @Component("ResponderService")
-public class GetRespondersRestWorkItemHandler implements WorkItemHandler {
+public class GetRespondersRestWorkItemHandler implements AsyncWorkItemHandler {
 
     private static Logger log = LoggerFactory.getLogger(GetRespondersRestWorkItemHandler.class);
 
+    private static final String SERVICE = "responder-service";
+
     @Value("${responder.service.scheme}")
     private String responderServiceScheme;
 
@@ -39,38 +48,85 @@ public class GetRespondersRestWorkItemHandler implements WorkItemHandler {
     @Value("${responder.service.available-responders-limit}")
     private Integer availableRespondersLimit;
 
+    @Value("${responder.service.available-responders-coalesce-window-ms:100}")
+    private long coalesceWindow;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired(required = false)
+    private ServiceResilience resilience;
+
+    @Autowired(required = false)
+    private ResponderSnapshot responderSnapshot;
+
+    @Autowired(required = false)
+    private AsyncWorkItemExecutor asyncExecutor;
+
+    private final SingleFlight<Integer, byte[]> availableResponders = new SingleFlight<>();
+
 
     @Override
     public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
 
-        RestTemplate restTemplate = new RestTemplate();
+        if (asyncExecutor != null) {
+            asyncExecutor.execute(workItem, manager, this);
+            return;
+        }
+        manager.completeWorkItem(workItem.getId(), results());
+
+    }
+
+    @Override
+    public CompletionStage<Map<String, Object>> lookup(WorkItem workItem) {
+        return CompletableFuture.completedFuture(results());
+    }
+
+    private Map<String, Object> results() {
+        Map<String, Object> results = new HashMap<>();
+        results.put("Responders", getResponders());
+        return results;
+    }
+
+    Responders getResponders() {
+        if (responderSnapshot != null && responderSnapshot.isReady()) {
+            return new Responders(responderSnapshot.availableResponders(availableRespondersLimit));
+        }
         Responders responders;
         try {
-            UriComponents uriComponents = UriComponentsBuilder.newInstance().scheme(responderServiceScheme)
-                    .host(responderServiceUrl).path(availableRespondersPath).query("limit="+availableRespondersLimit).build();
-            ResponseEntity<List<Responder>> entity = restTemplate.exchange(uriComponents.toUriString(),
-                    HttpMethod.GET, null, new ParameterizedTypeReference<List<Responder>>(){});
-            responders = new Responders(entity.getBody().stream().map(r -> {
-                com.redhat.cajun.navy.rules.model.Responder responder = new com.redhat.cajun.navy.rules.model.Responder();
-                responder.setId(Long.toString(r.getId()));
-                responder.setFullname(r.getName());
-                responder.setPhoneNumber(r.getPhoneNumber());
-                responder.setLatitude(r.getLatitude());
-                responder.setLongitude(r.getLongitude());
-                responder.setBoatCapacity(r.getBoatCapacity());
-                responder.setHasMedical(r.isMedicalKit());
-                responder.setPerson(r.isPerson());
-                return responder;
-            }).collect(Collectors.toList()));
-
+            byte[] body = availableResponders.execute(availableRespondersLimit, coalesceWindow,
+                    () -> call(true, () -> fetchAvailableRespondersBody(availableRespondersLimit)));
+            responders = new Responders(ResponderListParser.parse(body, true));
         } catch (HttpClientErrorException e) {
             log.error("Http Exception when calling responder service - response code : " + e.getRawStatusCode(), e);
             responders = new Responders();
+        } catch (CallNotPermittedException e) {
+            log.warn(e.getMessage() + ". Returning no responders.");
+            responders = new Responders();
+        } catch (IOException e) {
+            throw new IllegalStateException("Response from responder service cannot be parsed", e);
         }
-        Map<String, Object> results = new HashMap<>();
-        results.put("Responders", responders);
-        manager.completeWorkItem(workItem.getId(), results);
+        return responders;
+    }
+
+    private byte[] fetchAvailableRespondersBody(int limit) {
+        return restTemplate.exchange(availableRespondersUri(limit), HttpMethod.GET, null, byte[].class).getBody();
+    }
+
+    public List<Responder> fetchAvailableResponders(int limit) {
+        ResponseEntity<List<Responder>> entity = restTemplate.exchange(availableRespondersUri(limit),
+                HttpMethod.GET, null, new ParameterizedTypeReference<List<Responder>>(){});
+        return entity.getBody();
+    }
+
+    private String availableRespondersUri(int limit) {
+        UriComponents uriComponents = UriComponentsBuilder.newInstance().scheme(responderServiceScheme)
+                .host(responderServiceUrl).path(availableRespondersPath).query("limit=" + limit).build();
+        return uriComponents.toUriString();
+    }
 
+    private <T> T call(boolean idempotent, Supplier<T> call) {
+        return resilience == null ? call.get() : resilience.execute(SERVICE, idempotent, call);
     }
 
     @Override
@@ -1,33 +1,54 @@
 package com.redhat.cajun.navy.process.wih;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
+import com.redhat.cajun.navy.process.http.CallNotPermittedException;
+import com.redhat.cajun.navy.process.http.ServiceResilience;
 import com.redhat.cajun.navy.rules.model.Destination;
 import com.redhat.cajun.navy.rules.model.Destinations;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.kie.api.runtime.process.WorkItem;
-import org.kie.api.runtime.process.WorkItemHandler;
 import org.kie.api.runtime.process.WorkItemManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @Component("DisasterService")
-public class GetSheltersRestWorkItemHandler implements WorkItemHandler {
+public class GetSheltersRestWorkItemHandler implements AsyncWorkItemHandler {
 
     private static Logger log = LoggerFactory.getLogger(GetSheltersRestWorkItemHandler.class);
 
+    private static final String SERVICE = "disaster-service";
+
     @Value("${disaster.service.scheme}")
     private String disasterServiceScheme;
 
@@ -37,29 +58,180 @@ public class GetSheltersRestWorkItemHandler implements WorkItemHandler {
     @Value("${disaster.service.shelters-path}")
     private String sheltersPath;
 
+    @Value("${disaster.service.shelters-cache.ttl-ms:60000}")
+    private long cacheTtl;
+
+    @Value("${disaster.service.shelters-cache.refresh-ahead-ms:15000}")
+    private long cacheRefreshAhead;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired(required = false)
+    private ServiceResilience resilience;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private AsyncWorkItemExecutor asyncExecutor;
+
+    private volatile CachedShelters cachedShelters;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong refreshes = new AtomicLong();
+
+    private final AtomicLong notModified = new AtomicLong();
+
+    private final AtomicLong stale = new AtomicLong();
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(refreshThreadFactory());
+
+    @PostConstruct
+    public void init() {
+        if (meterRegistry != null) {
+            counter("hit", hits);
+            counter("miss", misses);
+            counter("refresh", refreshes);
+            counter("not-modified", notModified);
+            counter("stale", stale);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
 
     @Override
     public void executeWorkItem(WorkItem workItem, WorkItemManager manager) {
 
-        RestTemplate restTemplate = new RestTemplate();
-        Destinations destinations;
-        try {
-            UriComponents uriComponents = UriComponentsBuilder.newInstance().scheme(disasterServiceScheme)
-                    .host(disasterServiceUrl).path(sheltersPath).build();
-            ResponseEntity<List<Destination>> entity = restTemplate.exchange(uriComponents.toUriString(),
-                    HttpMethod.GET, null, new ParameterizedTypeReference<List<Destination>>(){});
-            destinations = new Destinations(entity.getBody());
-        } catch (HttpClientErrorException e) {
-            log.error("Http Exception when calling disaster service - response code : " + e.getRawStatusCode(), e);
-            destinations = new Destinations();
+        if (asyncExecutor != null) {
+            asyncExecutor.execute(workItem, manager, this);
+            return;
         }
+        manager.completeWorkItem(workItem.getId(), results());
+    }
+
+    @Override
+    public CompletionStage<Map<String, Object>> lookup(WorkItem workItem) {
+        return CompletableFuture.completedFuture(results());
+    }
+
+    private Map<String, Object> results() {
         Map<String, Object> results = new HashMap<>();
-        results.put("destinations", destinations);
-        manager.completeWorkItem(workItem.getId(), results);
+        results.put("destinations", getShelters());
+        return results;
+    }
+
+    Destinations getShelters() {
+        CachedShelters cached = cachedShelters;
+        long now = System.currentTimeMillis();
+        if (cached != null && now < cached.expiresAt) {
+            hits.incrementAndGet();
+            if (now >= cached.expiresAt - cacheRefreshAhead && refreshing.compareAndSet(false, true)) {
+                refreshExecutor.execute(() -> {
+                    try {
+                        refreshShelters();
+                    } catch (Exception e) {
+                        log.warn("Background refresh of shelters failed: " + e.getMessage());
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+            }
+            return destinations(cached);
+        }
+        misses.incrementAndGet();
+        try {
+            return destinations(refreshShelters());
+        } catch (RestClientException | CallNotPermittedException e) {
+            if (e instanceof CallNotPermittedException) {
+                log.warn(e.getMessage());
+            } else if (e instanceof HttpStatusCodeException) {
+                log.error("Http Exception when calling disaster service - response code : " + ((HttpStatusCodeException) e).getRawStatusCode(), e);
+            } else {
+                log.error("Exception when calling disaster service", e);
+            }
+            if (cached != null) {
+                stale.incrementAndGet();
+                return destinations(cached);
+            }
+            // without shelters to fall back on, only a rejected request completes the work item; outages fail it so that it is retried
+            if (e instanceof HttpClientErrorException) {
+                return new Destinations();
+            }
+            throw e;
+        }
+    }
+
+    private CachedShelters refreshShelters() {
+        CachedShelters cached = cachedShelters;
+        UriComponents uriComponents = UriComponentsBuilder.newInstance().scheme(disasterServiceScheme)
+                .host(disasterServiceUrl).path(sheltersPath).build();
+        HttpHeaders headers = new HttpHeaders();
+        if (cached != null && cached.etag != null) {
+            headers.setIfNoneMatch(cached.etag);
+        }
+        ResponseEntity<List<Destination>> entity = call(true, () -> restTemplate.exchange(uriComponents.toUriString(),
+                HttpMethod.GET, new HttpEntity<>(headers), new ParameterizedTypeReference<List<Destination>>(){}));
+        long expiresAt = System.currentTimeMillis() + cacheTtl;
+        CachedShelters refreshed;
+        if (entity.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+            notModified.incrementAndGet();
+            refreshed = new CachedShelters(cached.destinations, cached.etag, expiresAt);
+        } else {
+            refreshes.incrementAndGet();
+            List<Destination> body = entity.getBody();
+            refreshed = new CachedShelters(body == null ? new ArrayList<>() : body, entity.getHeaders().getETag(), expiresAt);
+        }
+        cachedShelters = refreshed;
+        return refreshed;
+    }
+
+    private Destinations destinations(CachedShelters cached) {
+        return new Destinations(new ArrayList<>(cached.destinations));
+    }
+
+    private void counter(String result, AtomicLong count) {
+        FunctionCounter.builder("shelters.cache", count, AtomicLong::get)
+                .tag("result", result)
+                .description("Shelters cache lookups and refreshes by result")
+                .register(meterRegistry);
+    }
+
+    private static CustomizableThreadFactory refreshThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("shelters-refresh-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private <T> T call(boolean idempotent, Supplier<T> call) {
+        return resilience == null ? call.get() : resilience.execute(SERVICE, idempotent, call);
     }
 
     @Override
     public void abortWorkItem(WorkItem workItem, WorkItemManager manager) {
 
     }
+
+    private static class CachedShelters {
+
+        private final List<Destination> destinations;
+
+        private final String etag;
+
+        private final long expiresAt;
+
+        CachedShelters(List<Destination> destinations, String etag, long expiresAt) {
+            this.destinations = destinations;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -1,11 +1,16 @@
 package com.redhat.cajun.navy.process.wih;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.metrics.IncidentLatencyTracker;
 import com.redhat.cajun.navy.process.outbox.OutboxEventEmitter;
 import io.cloudevents.CloudEvent;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -23,6 +28,12 @@ public class KafkaMessageSenderWorkItemHandler implements WorkItemHandler {
     @Autowired
     private OutboxEventEmitter outboxEventEmitter;
 
+    @Autowired
+    private CloudEventPayloadCodec payloadCodec;
+
+    @Autowired(required = false)
+    private IncidentLatencyTracker latencyTracker;
+
     @Value("${sender.destination.create-mission-command}")
     private String createMissionCommandDestination;
 
@@ -38,6 +49,14 @@ public class KafkaMessageSenderWorkItemHandler implements WorkItemHandler {
     @Value("${sender.destination.incident-assignment-event}")
     private String incidentAssignmentEventDestination;
 
+    @Value("${sender.binary-format.destinations:}")
+    private String binaryFormatDestinations;
+
+    @Value("${sender.binary-format.content-type:application/avro}")
+    private String binaryContentType;
+
+    private Set<String> binaryDestinations = Collections.emptySet();
+
     private final Map<String, Pair<Pair<String, String>, BiFunction<Pair<String, String>, Map<String, Object>, CloudEvent>>> payloadBuilders = new HashMap<>();
 
     @Override
@@ -57,8 +76,14 @@ public class KafkaMessageSenderWorkItemHandler implements WorkItemHandler {
 
         CloudEvent cloudEvent = messagetypeDestinationBuilderTuple.getRight()
                 .apply(messagetypeDestinationBuilderTuple.getLeft(), parameters);
+        if (binaryDestinations.contains(messagetypeDestinationBuilderTuple.getLeft().getRight())) {
+            cloudEvent = payloadCodec.encode(cloudEvent, binaryContentType);
+        }
 
         send(cloudEvent);
+        if (latencyTracker != null && "CreateMission".equals(messageType)) {
+            latencyTracker.mark((String) cloudEvent.getExtension("aggregateid"), IncidentLatencyTracker.Stage.MISSION_REQUESTED);
+        }
         manager.completeWorkItem(workItem.getId(), Collections.emptyMap());
     }
 
@@ -73,6 +98,10 @@ public class KafkaMessageSenderWorkItemHandler implements WorkItemHandler {
 
     @PostConstruct
     public void init() {
+        if (binaryFormatDestinations != null && !binaryFormatDestinations.trim().isEmpty()) {
+            binaryDestinations = Arrays.stream(binaryFormatDestinations.split(",")).map(String::trim)
+                    .filter(d -> !d.isEmpty()).collect(Collectors.toSet());
+        }
         addPayloadBuilder("CreateMission", "CreateMissionCommand", createMissionCommandDestination,
                 CreateMissionCommandBuilder::builder);
         addPayloadBuilder("SetResponderUnavailable", "SetResponderUnavailableCommand", setResponderUnavailableCommandDestination,
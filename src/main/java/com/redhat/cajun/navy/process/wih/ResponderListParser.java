@@ -0,0 +1,88 @@
+package com.redhat.cajun.navy.process.wih;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.redhat.cajun.navy.rules.model.Responder;
+
+final class ResponderListParser {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private ResponderListParser() {
+    }
+
+    static List<Responder> parse(byte[] body, boolean skipUnavailable) throws IOException {
+        List<Responder> responders = new ArrayList<>();
+        if (body == null || body.length == 0) {
+            return responders;
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of responders but got " + parser.currentToken());
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a responder object but got " + token);
+                }
+                Responder responder = new Responder();
+                boolean available = true;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if (token == JsonToken.VALUE_NULL) {
+                        continue;
+                    }
+                    switch (field) {
+                        case "id":
+                            responder.setId(parser.getText());
+                            break;
+                        case "name":
+                            responder.setFullname(parser.getText());
+                            break;
+                        case "phoneNumber":
+                            responder.setPhoneNumber(parser.getText());
+                            break;
+                        case "latitude":
+                            responder.setLatitude(decimal(parser, token));
+                            break;
+                        case "longitude":
+                            responder.setLongitude(decimal(parser, token));
+                            break;
+                        case "boatCapacity":
+                            responder.setBoatCapacity(parser.getValueAsInt());
+                            break;
+                        case "medicalKit":
+                            responder.setHasMedical(parser.getValueAsBoolean());
+                            break;
+                        case "person":
+                            responder.setPerson(parser.getValueAsBoolean());
+                            break;
+                        case "available":
+                            available = parser.getValueAsBoolean();
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+                if (available || !skipUnavailable) {
+                    responders.add(responder);
+                }
+            }
+        }
+        return responders;
+    }
+
+    private static BigDecimal decimal(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return new BigDecimal(parser.getText());
+        }
+        return parser.getDecimalValue();
+    }
+}
@@ -0,0 +1,101 @@
+package com.redhat.cajun.navy.process.correlation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.time.Duration;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jbpm.process.instance.ProcessInstance;
+import org.jbpm.services.api.ProcessService;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.runtime.process.WorkflowProcessInstance;
+import org.kie.internal.process.CorrelationKey;
+import org.mockito.Mock;
+
+public class ProcessInstanceIdCacheTest {
+
+    @Mock
+    private ProcessService processService;
+
+    @Mock
+    private ProcessInstance processInstance;
+
+    private ProcessInstanceIdCache processInstanceIdCache;
+
+    @Before
+    public void init() {
+        initMocks(this);
+        processInstanceIdCache = new ProcessInstanceIdCache(processService, 100, Duration.ofHours(1));
+        when(processInstance.getId()).thenReturn(100L);
+    }
+
+    @Test
+    public void testGetProcessInstanceIdFallsBackToProcessService() {
+        when(processService.getProcessInstance(any(CorrelationKey.class))).thenReturn(processInstance);
+
+        assertThat(processInstanceIdCache.getProcessInstanceId("incident123"), equalTo(100L));
+        assertThat(processInstanceIdCache.getProcessInstanceId("incident123"), equalTo(100L));
+
+        verify(processService, times(1)).getProcessInstance(any(CorrelationKey.class));
+    }
+
+    @Test
+    public void testGetProcessInstanceIdWhenNotFound() {
+
+        assertThat(processInstanceIdCache.getProcessInstanceId("incident123"), nullValue());
+        assertThat(processInstanceIdCache.getProcessInstanceId("incident123"), nullValue());
+
+        verify(processService, times(2)).getProcessInstance(any(CorrelationKey.class));
+    }
+
+    @Test
+    public void testPut() {
+
+        processInstanceIdCache.put("incident123", 200L);
+
+        assertThat(processInstanceIdCache.getProcessInstanceId("incident123"), equalTo(200L));
+        verify(processService, times(0)).getProcessInstance(any(CorrelationKey.class));
+    }
+
+    @Test
+    public void testEvictOnProcessCompleted() {
+        processInstanceIdCache.put("incident123", 200L);
+        when(processService.getProcessInstance(any(CorrelationKey.class))).thenReturn(processInstance);
+
+        Incident incident = new Incident();
+        incident.setId("incident123");
+        WorkflowProcessInstance completed = mock(WorkflowProcessInstance.class);
+        when(completed.getVariable("incident")).thenReturn(incident);
+        ProcessCompletedEvent event = mock(ProcessCompletedEvent.class);
+        when(event.getProcessInstance()).thenReturn(completed);
+
+        new ProcessInstanceIdCacheEvictionListener(processInstanceIdCache).afterProcessCompleted(event);
+
+        assertThat(processInstanceIdCache.getProcessInstanceId("incident123"), equalTo(100L));
+    }
+
+    @Test
+    public void testMetrics() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        processInstanceIdCache.bindTo(meterRegistry);
+        processInstanceIdCache.put("incident123", 200L);
+
+        processInstanceIdCache.getProcessInstanceId("incident123");
+        processInstanceIdCache.getProcessInstanceId("incident456");
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "process.instance.id").tag("result", "hit").functionCounter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "process.instance.id").tag("result", "miss").functionCounter().count(), equalTo(1.0));
+    }
+}
@@ -0,0 +1,82 @@
+package com.redhat.cajun.navy.process.http;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void testOpensWhenFailureRateIsExceeded() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("service", 50, 10, 4, 60000);
+        succeedCall(circuitBreaker);
+        succeedCall(circuitBreaker);
+        failCall(circuitBreaker);
+        assertThat(circuitBreaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+        failCall(circuitBreaker);
+        assertThat(circuitBreaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+
+        try {
+            circuitBreaker.execute(calls::incrementAndGet, e -> true);
+            fail("Expected CallNotPermittedException");
+        } catch (CallNotPermittedException e) {
+            assertThat(calls.get(), equalTo(4));
+            assertThat(circuitBreaker.getRejections(), equalTo(1L));
+        }
+    }
+
+    @Test
+    public void testIgnoredExceptionsDoNotOpen() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("service", 50, 10, 2, 60000);
+        for (int i = 0; i < 5; i++) {
+            try {
+                circuitBreaker.execute(() -> {
+                    throw new IllegalArgumentException();
+                }, e -> !(e instanceof IllegalArgumentException));
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertThat(circuitBreaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void testHalfOpenTrialClosesOnSuccess() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("service", 50, 10, 1, 20);
+        failCall(circuitBreaker);
+        assertThat(circuitBreaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+        Thread.sleep(50);
+        succeedCall(circuitBreaker);
+        assertThat(circuitBreaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void testHalfOpenTrialReopensOnFailure() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("service", 50, 10, 1, 20);
+        failCall(circuitBreaker);
+        Thread.sleep(50);
+        failCall(circuitBreaker);
+        assertThat(circuitBreaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+    }
+
+    private void succeedCall(CircuitBreaker circuitBreaker) {
+        circuitBreaker.execute(calls::incrementAndGet, e -> true);
+    }
+
+    private void failCall(CircuitBreaker circuitBreaker) {
+        try {
+            circuitBreaker.execute(() -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("failed");
+            }, e -> true);
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), equalTo("failed"));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.redhat.cajun.navy.process.http;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HedgingExecutorTest {
+
+    private ExecutorService executor;
+
+    private HedgingExecutor hedgingExecutor;
+
+    @Before
+    public void init() {
+        executor = Executors.newFixedThreadPool(4);
+        hedgingExecutor = new HedgingExecutor(executor, 0.95, 20, 128);
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testNoHedgingUntilEnoughSamples() {
+        assertThat(hedgingExecutor.getHedgeDelay(), equalTo(-1L));
+        for (int i = 0; i < 19; i++) {
+            hedgingExecutor.execute(() -> "value");
+        }
+        assertThat(hedgingExecutor.getHedgeDelay(), equalTo(-1L));
+        hedgingExecutor.execute(() -> "value");
+        assertThat(hedgingExecutor.getHedgeDelay(), equalTo(20L));
+    }
+
+    @Test
+    public void testSlowCallIsHedged() {
+        for (int i = 0; i < 20; i++) {
+            hedgingExecutor.execute(() -> "value");
+        }
+        AtomicInteger calls = new AtomicInteger();
+        String result = hedgingExecutor.execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(2000);
+                return "slow";
+            }
+            return "fast";
+        });
+        assertThat(result, equalTo("fast"));
+        assertThat(calls.get(), equalTo(2));
+        assertThat(hedgingExecutor.getHedges(), equalTo(1L));
+    }
+
+    @Test
+    public void testFailureOfBothAttemptsIsPropagated() {
+        for (int i = 0; i < 20; i++) {
+            hedgingExecutor.execute(() -> "value");
+        }
+        try {
+            hedgingExecutor.execute(() -> {
+                sleep(100);
+                throw new IllegalArgumentException("failed");
+            });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), equalTo("failed"));
+        }
+        assertThat(hedgingExecutor.getHedges(), equalTo(1L));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
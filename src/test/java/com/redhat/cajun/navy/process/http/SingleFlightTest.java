@@ -0,0 +1,111 @@
+package com.redhat.cajun.navy.process.http;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("key", 0, () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "value";
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 9; i++) {
+                followers.add(executor.submit(() -> singleFlight.execute("key", 0, () -> {
+                    calls.incrementAndGet();
+                    return "other";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS), equalTo("value"));
+            for (Future<String> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS), equalTo("value"));
+            }
+            assertThat(calls.get(), equalTo(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testResultIsReusedWithinWindow() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        assertThat(singleFlight.execute("key", 60000, calls::incrementAndGet), equalTo(1));
+        assertThat(singleFlight.execute("key", 60000, calls::incrementAndGet), equalTo(1));
+        assertThat(singleFlight.execute("other", 60000, calls::incrementAndGet), equalTo(2));
+    }
+
+    @Test
+    public void testResultIsNotReusedAfterWindow() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        assertThat(singleFlight.execute("key", 10, calls::incrementAndGet), equalTo(1));
+        Thread.sleep(50);
+        assertThat(singleFlight.execute("key", 10, calls::incrementAndGet), equalTo(2));
+    }
+
+    @Test
+    public void testFailureIsNotReused() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            singleFlight.execute("key", 60000, () -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("failed");
+            });
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), equalTo("failed"));
+        }
+        assertThat(singleFlight.execute("key", 60000, calls::incrementAndGet), equalTo(2));
+    }
+
+    @Test
+    public void testErrorReleasesKey() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            singleFlight.execute("key", 60000, () -> {
+                calls.incrementAndGet();
+                throw new AssertionError("failed");
+            });
+            fail("Expected AssertionError");
+        } catch (AssertionError e) {
+            assertThat(e.getMessage(), equalTo("failed"));
+        }
+        assertThat(singleFlight.execute("key", 60000, calls::incrementAndGet), equalTo(2));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.redhat.cajun.navy.process.message.codec;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cajun.navy.process.message.model.IncidentReportedEvent;
+import com.redhat.cajun.navy.process.message.model.MissionStartedEvent;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CloudEventPayloadCodecBenchmark {
+
+    private CloudEventPayloadCodec codec;
+
+    private CloudEvent incidentReportedEvent;
+
+    private CloudEvent missionStartedEvent;
+
+    @Setup
+    public void setup() {
+        codec = new CloudEventPayloadCodec();
+        String incidentJson = "{\"id\":\"incident123\"," +
+                "\"lat\": \"34.14338\"," +
+                "\"lon\": \"-77.86569\"," +
+                "\"numberOfPeople\": 3," +
+                "\"medicalNeeded\": true," +
+                "\"timestamp\": 1521148332350," +
+                "\"victimName\":\"John Doe\"," +
+                "\"victimPhoneNumber\":\"111-111-111\"," +
+                "\"status\":\"REPORTED\"" +
+                "}";
+        incidentReportedEvent = cloudEvent("IncidentReportedEvent", incidentJson);
+        String missionJson = "{" +
+                "\"missionId\" : \"mission123\"," +
+                "\"incidentId\" : \"incident123\"," +
+                "\"responderId\" : \"responder123\"," +
+                "\"responderStartLat\" : \"30.12345\"," +
+                "\"responderStartLong\" : \"-77.98765\"," +
+                "\"incidentLat\" : \"31.12345\"," +
+                "\"incidentLong\" : \"-78.98765\"," +
+                "\"destinationLat\" : \"32.12345\"," +
+                "\"destinationLong\" : \"-79.98765\"" +
+                "}";
+        missionStartedEvent = cloudEvent("MissionStartedEvent", missionJson);
+    }
+
+    @Benchmark
+    public IncidentReportedEvent incidentReportedEventNewObjectMapper() throws Exception {
+        return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .readValue(incidentReportedEvent.getData().toBytes(), new TypeReference<IncidentReportedEvent>() {});
+    }
+
+    @Benchmark
+    public IncidentReportedEvent incidentReportedEventCodec() throws Exception {
+        return codec.decode(incidentReportedEvent);
+    }
+
+    @Benchmark
+    public MissionStartedEvent missionStartedEventNewObjectMapper() throws Exception {
+        return new ObjectMapper().readValue(missionStartedEvent.getData().toBytes(), new TypeReference<MissionStartedEvent>() {});
+    }
+
+    @Benchmark
+    public MissionStartedEvent missionStartedEventCodec() throws Exception {
+        return codec.decode(missionStartedEvent);
+    }
+
+    private CloudEvent cloudEvent(String type, String json) {
+        return CloudEventBuilder.v1()
+                .withId("000")
+                .withType(type)
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType("application/json")
+                .withData(json.getBytes())
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CloudEventPayloadCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
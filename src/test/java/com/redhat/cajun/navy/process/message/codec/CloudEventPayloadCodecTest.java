@@ -0,0 +1,102 @@
+package com.redhat.cajun.navy.process.message.codec;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.net.URI;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.redhat.cajun.navy.process.message.model.IncidentReportedEvent;
+import com.redhat.cajun.navy.process.message.model.MissionStartedEvent;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import org.junit.Test;
+
+public class CloudEventPayloadCodecTest {
+
+    private final CloudEventPayloadCodec codec = new CloudEventPayloadCodec();
+
+    @Test
+    public void testDecode() throws Exception {
+        String json = "{\"missionId\" : \"mission123\", \"incidentId\" : \"incident123\", \"unknown\" : \"value\"}";
+
+        MissionStartedEvent event = codec.decode(cloudEvent("MissionStartedEvent", json));
+
+        assertThat(event.getMissionId(), equalTo("mission123"));
+        assertThat(event.getIncidentId(), equalTo("incident123"));
+    }
+
+    @Test
+    public void testDecodeIgnoresUnknownPropertiesOfIncidentReportedEvent() throws Exception {
+        String json = "{\"id\":\"incident123\", \"numberOfPeople\": 3, \"unknown\" : \"value\"}";
+
+        IncidentReportedEvent event = codec.decode(cloudEvent("IncidentReportedEvent", json));
+
+        assertThat(event.getId(), equalTo("incident123"));
+        assertThat(event.getNumberOfPeople(), equalTo(3));
+    }
+
+    @Test(expected = UnrecognizedPropertyException.class)
+    public void testDecodeFailsOnUnknownPropertiesOfResponderSetUnavailableEvent() throws Exception {
+        String json = "{\"field1\": \"value1\"}";
+
+        codec.decode(cloudEvent("ResponderSetUnavailableEvent", json));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDecodeUnknownType() throws Exception {
+        codec.decode(cloudEvent("UnknownEvent", "{}"));
+    }
+
+    @Test
+    public void testDecodeAvro() throws Exception {
+        MissionStartedEvent missionStartedEvent = new ObjectMapper().readValue(
+                "{\"missionId\" : \"mission123\", \"incidentId\" : \"incident123\"}", MissionStartedEvent.class);
+        byte[] avro = new AvroPayloadFormat().writer(MissionStartedEvent.class).writeValueAsBytes(missionStartedEvent);
+
+        MissionStartedEvent event = codec.decode(cloudEvent("MissionStartedEvent", "application/avro", avro));
+
+        assertThat(event.getMissionId(), equalTo("mission123"));
+        assertThat(event.getIncidentId(), equalTo("incident123"));
+    }
+
+    @Test
+    public void testEncodeAvro() throws Exception {
+        MissionStartedEvent missionStartedEvent = new ObjectMapper().readValue(
+                "{\"missionId\" : \"mission123\", \"incidentId\" : \"incident123\"}", MissionStartedEvent.class);
+        CloudEvent cloudEvent = new com.redhat.cajun.navy.process.message.model.CloudEventBuilder<MissionStartedEvent>()
+                .withType("MissionStartedEvent").withData(missionStartedEvent).build();
+
+        CloudEvent encoded = codec.encode(cloudEvent, "application/avro");
+
+        assertThat(encoded.getId(), equalTo(cloudEvent.getId()));
+        assertThat(encoded.getDataContentType(), equalTo("application/avro"));
+        MissionStartedEvent event = codec.decode(encoded, MissionStartedEvent.class);
+        assertThat(event.getMissionId(), equalTo("mission123"));
+        assertThat(event.getIncidentId(), equalTo("incident123"));
+    }
+
+    @Test
+    public void testSupportedContentTypes() {
+        assertThat(codec.isSupported("application/json"), is(true));
+        assertThat(codec.isSupported("application/avro"), is(true));
+        assertThat(codec.isSupported("application/binary"), is(false));
+        assertThat(codec.isSupported(null), is(false));
+    }
+
+    private CloudEvent cloudEvent(String type, String json) {
+        return cloudEvent(type, "application/json", json.getBytes());
+    }
+
+    private CloudEvent cloudEvent(String type, String contentType, byte[] data) {
+        return CloudEventBuilder.v1()
+                .withId("000")
+                .withType(type)
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType(contentType)
+                .withData(data)
+                .build();
+    }
+}
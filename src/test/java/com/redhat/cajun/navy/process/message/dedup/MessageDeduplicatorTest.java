@@ -0,0 +1,199 @@
+package com.redhat.cajun.navy.process.message.dedup;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+public class MessageDeduplicatorTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @Captor
+    private ArgumentCaptor<ProcessedMessage> processedMessageCaptor;
+
+    private MessageDeduplicator deduplicator;
+
+    @Before
+    public void init() {
+        initMocks(this);
+        deduplicator = new MessageDeduplicator();
+        setField(deduplicator, null, entityManager, EntityManager.class);
+        setField(deduplicator, "enabled", true);
+        setField(deduplicator, "cacheSize", 2);
+        deduplicator.init();
+    }
+
+    @After
+    public void cleanup() {
+        deduplicator.shutdown();
+    }
+
+    @Test
+    public void testIsDuplicateWhenNotProcessed() {
+
+        assertThat(deduplicator.isDuplicate(event("000")), equalTo(false));
+        verify(entityManager).find(ProcessedMessage.class, "http://example.com 000");
+    }
+
+    @Test
+    public void testIsDuplicateWhenInStore() {
+        when(entityManager.find(ProcessedMessage.class, "http://example.com 000")).thenReturn(new ProcessedMessage());
+
+        assertThat(deduplicator.isDuplicate(event("000")), equalTo(true));
+        assertThat(deduplicator.isDuplicate(event("000")), equalTo(true));
+        verify(entityManager, times(1)).find(ProcessedMessage.class, "http://example.com 000");
+    }
+
+    @Test
+    public void testMarkProcessed() {
+
+        deduplicator.markProcessed(event("000"));
+
+        verify(entityManager).persist(processedMessageCaptor.capture());
+        assertThat(processedMessageCaptor.getValue().getId(), equalTo("http://example.com 000"));
+        assertThat(deduplicator.isDuplicate(event("000")), equalTo(true));
+        verify(entityManager, never()).find(any(), eq("http://example.com 000"));
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+
+        deduplicator.markProcessed(event("000"));
+        deduplicator.markProcessed(event("001"));
+        deduplicator.markProcessed(event("002"));
+
+        assertThat(deduplicator.isDuplicate(event("002")), equalTo(true));
+        assertThat(deduplicator.isDuplicate(event("000")), equalTo(false));
+        verify(entityManager).find(ProcessedMessage.class, "http://example.com 000");
+    }
+
+    @Test
+    public void testIsDuplicateKeysOnSourceAndId() {
+        when(entityManager.find(ProcessedMessage.class, "http://example.com 000")).thenReturn(new ProcessedMessage());
+
+        assertThat(deduplicator.isDuplicate(event("000")), equalTo(true));
+        assertThat(deduplicator.isDuplicate(event("http://other.example.com", "000")), equalTo(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBloomFilterSkipsStoreForUnseenIds() {
+        setField(deduplicator, "bloomFilterEnabled", true);
+        setField(deduplicator, "expectedInsertions", 1000L);
+        setField(deduplicator, "fpp", 0.01);
+        setField(deduplicator, null, transactionManager, PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        TypedQuery<String> query = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(String.class))).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultStream()).thenReturn(Stream.of("http://example.com 000"), Stream.empty());
+        when(entityManager.find(ProcessedMessage.class, "http://example.com 000")).thenReturn(new ProcessedMessage());
+
+        deduplicator.rebuild();
+
+        assertThat(deduplicator.isDuplicate(event("001")), equalTo(false));
+        verify(entityManager, never()).find(ProcessedMessage.class, "http://example.com 001");
+        assertThat(deduplicator.isDuplicate(event("000")), equalTo(true));
+        verify(entityManager).find(ProcessedMessage.class, "http://example.com 000");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRefreshDoesNotLoadBloomFilterOnCallingThread() {
+        setField(deduplicator, "bloomFilterEnabled", true);
+        setField(deduplicator, "expectedInsertions", 1000L);
+        setField(deduplicator, "fpp", 0.01);
+        setField(deduplicator, null, transactionManager, PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        TypedQuery<String> query = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(String.class))).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        when(query.getResultStream()).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return Stream.empty();
+        });
+
+        deduplicator.refresh();
+
+        verify(query, timeout(5000).times(2)).getResultStream();
+        assertThat(threads.get(0), startsWith("dedup-bloom-filter-"));
+        assertThat(threads.get(1), startsWith("dedup-bloom-filter-"));
+    }
+
+    @Test
+    public void testBloomFilter() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("http://example.com " + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain("http://example.com " + i), equalTo(true));
+            if (filter.mightContain("http://other.example.com " + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives < 50, equalTo(true));
+    }
+
+    @Test
+    public void testIsDuplicateWhenDisabled() {
+        setField(deduplicator, "enabled", false);
+
+        deduplicator.markProcessed(event("000"));
+
+        assertThat(deduplicator.isDuplicate(event("000")), equalTo(false));
+        verify(entityManager, never()).persist(any());
+    }
+
+    private CloudEvent event(String id) {
+        return event("http://example.com", id);
+    }
+
+    private CloudEvent event(String source, String id) {
+        return CloudEventBuilder.v1()
+                .withId(id)
+                .withType("MissionStartedEvent")
+                .withSource(URI.create(source))
+                .withDataContentType("application/json")
+                .withData("{}".getBytes())
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.redhat.cajun.navy.process.message.dispatch;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import io.cloudevents.CloudEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HeaderFilteringCloudEventDeserializerTest {
+
+    private HeaderFilteringCloudEventDeserializer deserializer;
+
+    @Before
+    public void init() {
+        Map<String, Set<String>> acceptedMessageTypes = Collections.singletonMap("topic-incident-event",
+                new HashSet<>(Arrays.asList("IncidentReportedEvent")));
+        deserializer = new HeaderFilteringCloudEventDeserializer(acceptedMessageTypes, Collections.singleton("application/json"));
+    }
+
+    @Test
+    public void testDeserializeAcceptedType() {
+        byte[] data = "{\"id\":\"incident123\"}".getBytes();
+
+        CloudEvent cloudEvent = deserializer.deserialize("topic-incident-event", headers("IncidentReportedEvent", "application/json"), data);
+
+        assertThat(cloudEvent, notNullValue());
+        assertThat(cloudEvent.getType(), equalTo("IncidentReportedEvent"));
+        assertThat(cloudEvent.getData().toBytes(), equalTo(data));
+    }
+
+    @Test
+    public void testDeserializeIgnoredTypeDoesNotParsePayload() {
+        byte[] data = "not a valid payload".getBytes();
+
+        CloudEvent cloudEvent = deserializer.deserialize("topic-incident-event", headers("IncidentAssignmentEvent", "application/json"), data);
+
+        assertThat(cloudEvent, nullValue());
+    }
+
+    @Test
+    public void testDeserializeWrongContentType() {
+        byte[] data = "{\"id\":\"incident123\"}".getBytes();
+
+        CloudEvent cloudEvent = deserializer.deserialize("topic-incident-event", headers("IncidentReportedEvent", "text/plain"), data);
+
+        assertThat(cloudEvent, nullValue());
+    }
+
+    @Test
+    public void testDeserializeOtherTopic() {
+        byte[] data = "{\"id\":\"incident123\"}".getBytes();
+
+        CloudEvent cloudEvent = deserializer.deserialize("other-topic", headers("IncidentAssignmentEvent", "application/json"), data);
+
+        assertThat(cloudEvent, notNullValue());
+        assertThat(cloudEvent.getType(), equalTo("IncidentAssignmentEvent"));
+    }
+
+    private Headers headers(String type, String contentType) {
+        Headers headers = new RecordHeaders();
+        headers.add("ce_specversion", "1.0".getBytes(StandardCharsets.UTF_8));
+        headers.add("ce_id", "000".getBytes(StandardCharsets.UTF_8));
+        headers.add("ce_source", "http://example.com".getBytes(StandardCharsets.UTF_8));
+        headers.add(HeaderFilteringCloudEventDeserializer.CE_TYPE_HEADER, type.getBytes(StandardCharsets.UTF_8));
+        headers.add(HeaderFilteringCloudEventDeserializer.CONTENT_TYPE_HEADER, contentType.getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+}
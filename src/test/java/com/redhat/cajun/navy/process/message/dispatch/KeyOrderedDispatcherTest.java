@@ -0,0 +1,226 @@
+package com.redhat.cajun.navy.process.message.dispatch;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.redhat.cajun.navy.process.message.retry.RetryTopicRouter;
+import io.cloudevents.CloudEvent;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+public class KeyOrderedDispatcherTest {
+
+    private KeyOrderedDispatcher dispatcher;
+
+    private final CloudEvent cloudEvent = mock(CloudEvent.class);
+
+    @After
+    public void cleanup() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testDispatchWhenDisabled() {
+        dispatcher = new KeyOrderedDispatcher(false, 4, 10, 10, 5);
+        Acknowledgment ack = mock(Acknowledgment.class);
+        List<String> threads = new ArrayList<>();
+
+        dispatcher.dispatch("topic", 0, 0, "incident123", null, ack, a -> {
+            threads.add(Thread.currentThread().getName());
+            a.acknowledge();
+        });
+
+        assertThat(threads, equalTo(Collections.singletonList(Thread.currentThread().getName())));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    public void testDispatchKeepsOrderPerKey() throws Exception {
+        dispatcher = new KeyOrderedDispatcher(true, 4, 10, 10, 5);
+        Map<String, List<Long>> processed = new HashMap<>();
+        CountDownLatch latch = new CountDownLatch(60);
+        Acknowledgment lastAck = mock(Acknowledgment.class);
+
+        for (long offset = 0; offset < 60; offset++) {
+            String key = "incident" + (offset % 3);
+            long current = offset;
+            dispatcher.dispatch("topic", 0, offset, key, cloudEvent, offset == 59 ? lastAck : mock(Acknowledgment.class), a -> {
+                synchronized (processed) {
+                    processed.computeIfAbsent(key, k -> new ArrayList<>()).add(current);
+                }
+                a.acknowledge();
+                latch.countDown();
+            });
+        }
+
+        assertThat(latch.await(10, TimeUnit.SECONDS), equalTo(true));
+        for (List<Long> offsets : processed.values()) {
+            List<Long> sorted = new ArrayList<>(offsets);
+            Collections.sort(sorted);
+            assertThat(offsets, equalTo(sorted));
+        }
+        verify(lastAck, timeout(1000)).acknowledge();
+    }
+
+    @Test
+    public void testDispatchRetriesFailedRecord() throws Exception {
+        dispatcher = new KeyOrderedDispatcher(true, 2, 10, 10, 5);
+        Acknowledgment ack = mock(Acknowledgment.class);
+        AtomicInteger attempts = new AtomicInteger();
+
+        dispatcher.dispatch("topic", 0, 0, "incident123", cloudEvent, ack, a -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("error");
+            }
+            a.acknowledge();
+        });
+
+        verify(ack, timeout(1000)).acknowledge();
+        assertThat(attempts.get(), equalTo(3));
+    }
+
+    @Test
+    public void testRecordWithoutCloudEventIsCommittedAfterPreviousRecords() throws Exception {
+        dispatcher = new KeyOrderedDispatcher(true, 2, 10, 10, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        Acknowledgment ack0 = mock(Acknowledgment.class);
+        Acknowledgment ack1 = mock(Acknowledgment.class);
+        AtomicInteger processed = new AtomicInteger();
+
+        dispatcher.dispatch("topic", 0, 0, "incident123", cloudEvent, ack0, a -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            a.acknowledge();
+        });
+        dispatcher.dispatch("topic", 0, 1, null, null, ack1, a -> processed.incrementAndGet());
+
+        Thread.sleep(100);
+        verify(ack1, never()).acknowledge();
+        release.countDown();
+
+        verify(ack1, timeout(1000)).acknowledge();
+        verify(ack0, never()).acknowledge();
+        assertThat(processed.get(), equalTo(0));
+    }
+
+    @Test
+    public void testDispatchGivesUpAfterMaxAttempts() throws Exception {
+        dispatcher = new KeyOrderedDispatcher(true, 2, 10, 10, 3);
+        RetryTopicRouter router = mock(RetryTopicRouter.class);
+        when(router.getTiers()).thenReturn(2);
+        dispatcher.setRetryRouter(() -> router);
+        Acknowledgment ack = mock(Acknowledgment.class);
+        AtomicInteger attempts = new AtomicInteger();
+
+        dispatcher.dispatch("topic", 0, 0, "incident123", cloudEvent, ack, a -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("error");
+        });
+
+        verify(ack, timeout(1000)).acknowledge();
+        verify(router).route("topic", "incident123", cloudEvent, 2);
+        assertThat(attempts.get(), equalTo(3));
+    }
+
+    @Test
+    public void testDispatchPausesContainersWhenLaneIsFull() throws Exception {
+        dispatcher = new KeyOrderedDispatcher(true, 1, 2, 10, 5);
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties("topic"));
+        MessageListenerContainer other = mock(MessageListenerContainer.class);
+        when(other.getContainerProperties()).thenReturn(new ContainerProperties("other"));
+        dispatcher.setListenerContainers(() -> Arrays.asList(container, other));
+        CountDownLatch blocked = new CountDownLatch(1);
+
+        for (long offset = 0; offset < 4; offset++) {
+            dispatcher.dispatch("topic", 0, offset, "incident123", cloudEvent, mock(Acknowledgment.class), a -> {
+                try {
+                    blocked.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                a.acknowledge();
+            });
+        }
+
+        verify(container).pause();
+        verify(other, never()).pause();
+        blocked.countDown();
+        verify(container, timeout(1000)).resume();
+    }
+
+    @Test
+    public void testRevokedPartitionIsDiscarded() throws Exception {
+        dispatcher = new KeyOrderedDispatcher(true, 1, 10, 10, 5);
+        CountDownLatch blocked = new CountDownLatch(1);
+        Acknowledgment ack0 = mock(Acknowledgment.class);
+        Acknowledgment ack1 = mock(Acknowledgment.class);
+        AtomicInteger processed = new AtomicInteger();
+
+        dispatcher.dispatch("topic", 0, 0, "incident123", cloudEvent, ack0, a -> {
+            try {
+                blocked.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            a.acknowledge();
+        });
+        dispatcher.dispatch("topic", 0, 1, "incident123", cloudEvent, ack1, a -> {
+            processed.incrementAndGet();
+            a.acknowledge();
+        });
+        dispatcher.reset(Collections.singletonList(new TopicPartition("topic", 0)), "revoked");
+        blocked.countDown();
+        dispatcher.shutdown();
+
+        assertThat(processed.get(), equalTo(0));
+        verify(ack0, never()).acknowledge();
+        verify(ack1, never()).acknowledge();
+    }
+
+    @Test
+    public void testOffsetTrackerAcknowledgesContiguousOffsetsOnly() {
+        PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+        Acknowledgment ack0 = mock(Acknowledgment.class);
+        Acknowledgment ack1 = mock(Acknowledgment.class);
+        Acknowledgment ack2 = mock(Acknowledgment.class);
+        tracker.register(0, ack0);
+        tracker.register(1, ack1);
+        tracker.register(2, ack2);
+
+        tracker.complete(1);
+        tracker.complete(2);
+        verify(ack2, never()).acknowledge();
+        assertThat(tracker.inFlight(), equalTo(3));
+
+        tracker.complete(0);
+        verify(ack2).acknowledge();
+        verify(ack0, never()).acknowledge();
+        verify(ack1, never()).acknowledge();
+        assertThat(tracker.inFlight(), equalTo(0));
+    }
+}
@@ -0,0 +1,76 @@
+package com.redhat.cajun.navy.process.message.dispatch;
+
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+public class PartialBatchErrorHandlerTest {
+
+    private final TopicPartition partition0 = new TopicPartition("topic", 0);
+
+    private final TopicPartition partition1 = new TopicPartition("topic", 1);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCommitsCompletedRecordsAndSeeksToFailedRecord() {
+        Consumer<String, String> consumer = mock(Consumer.class);
+        Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new LinkedHashMap<>();
+        records.put(partition0, Arrays.asList(record(0, 10), record(0, 11), record(0, 12)));
+        records.put(partition1, Arrays.asList(record(1, 20), record(1, 21)));
+
+        try {
+            new PartialBatchErrorHandler().handle(new BatchRecordFailedException("topic", 0, 12, new RuntimeException("error")),
+                    new ConsumerRecords<>(records), consumer, mock(MessageListenerContainer.class));
+            fail("Expected KafkaException");
+        } catch (KafkaException e) {
+            // expected
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+        committed.put(partition0, new OffsetAndMetadata(12));
+        verify(consumer).commitSync(committed);
+        verify(consumer).seek(partition0, 12);
+        verify(consumer).seek(partition1, 20);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSeeksWholeBatchOnOtherExceptions() {
+        Consumer<String, String> consumer = mock(Consumer.class);
+        Map<TopicPartition, List<ConsumerRecord<String, String>>> records = new LinkedHashMap<>();
+        records.put(partition0, Collections.singletonList(record(0, 10)));
+
+        try {
+            new PartialBatchErrorHandler().handle(new IllegalStateException("error"),
+                    new ConsumerRecords<>(records), consumer, mock(MessageListenerContainer.class));
+            fail("Expected KafkaException");
+        } catch (KafkaException e) {
+            // expected
+        }
+
+        verify(consumer, never()).commitSync(anyMap());
+        verify(consumer).seek(partition0, 10);
+    }
+
+    private ConsumerRecord<String, String> record(int partition, long offset) {
+        return new ConsumerRecord<>("topic", partition, offset, "key", "value");
+    }
+}
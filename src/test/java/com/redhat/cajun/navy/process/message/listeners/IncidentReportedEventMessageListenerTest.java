@@ -12,8 +12,12 @@ import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.time.Duration;
 import java.util.Map;
 
+import com.redhat.cajun.navy.process.correlation.ProcessInstanceIdCache;
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.dedup.MessageDeduplicator;
 import com.redhat.cajun.navy.rules.model.Incident;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.core.builder.CloudEventBuilder;
@@ -45,6 +49,9 @@ public class IncidentReportedEventMessageListenerTest {
     @Mock
     private Acknowledgment ack;
 
+    @Mock
+    private MessageDeduplicator deduplicator;
+
     @Captor
     private ArgumentCaptor<String> processIdCaptor;
 
@@ -62,6 +69,9 @@ public class IncidentReportedEventMessageListenerTest {
         messageListener = new IncidentReportedEventMessageListener();
         setField(messageListener, null, ptm, PlatformTransactionManager.class);
         setField(messageListener, null, processService, ProcessService.class);
+        setField(messageListener, null, new CloudEventPayloadCodec(), CloudEventPayloadCodec.class);
+        setField(messageListener, null, deduplicator, MessageDeduplicator.class);
+        setField(messageListener, null, new ProcessInstanceIdCache(processService, 100, Duration.ofHours(1)), ProcessInstanceIdCache.class);
         setField(messageListener, "processId", processId, String.class);
         setField(messageListener, "assignmentDelay", "PT30S", String.class);
 
@@ -108,7 +118,35 @@ public class IncidentReportedEventMessageListenerTest {
         assertThat(incident.getNumPeople(), equalTo(3));
         assertThat(incident.getMedicalNeeded(), equalTo(true));
         assertThat(incident.getReportedTime(), equalTo(1521148332350L));
+        verify(deduplicator).markProcessed(event);
+
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    public void testProcessDuplicateIncidentReportedEventMessage() {
+        String json = "{\"id\":\"incident123\"," +
+                "\"lat\": \"34.14338\"," +
+                "\"lon\": \"-77.86569\"," +
+                "\"numberOfPeople\": 3," +
+                "\"medicalNeeded\": true," +
+                "\"timestamp\": 1521148332350" +
+                "}";
 
+        CloudEvent event = CloudEventBuilder.v1()
+                .withId("000")
+                .withType("IncidentReportedEvent")
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType("application/json")
+                .withData(json.getBytes())
+                .build();
+
+        when(deduplicator.isDuplicate(event)).thenReturn(true);
+
+        messageListener.processMessage(event, "incident123", "topic1", 1, ack);
+
+        verify(processService, never()).startProcess(any(), any(), any(), any());
+        verify(deduplicator, never()).markProcessed(any());
         verify(ack).acknowledge();
     }
 
@@ -0,0 +1,165 @@
+package com.redhat.cajun.navy.process.message.listeners;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import com.redhat.cajun.navy.process.correlation.ProcessInstanceIdCache;
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.dedup.MessageDeduplicator;
+import com.redhat.cajun.navy.process.message.dispatch.BatchRecordFailedException;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.jbpm.process.instance.ProcessInstance;
+import org.jbpm.services.api.ProcessService;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.internal.process.CorrelationKey;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+public class MissionEventBatchTopicListenerTest {
+
+    @Mock
+    private PlatformTransactionManager ptm;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @Mock
+    private ProcessService processService;
+
+    @Mock
+    private ProcessInstance processInstance;
+
+    @Mock
+    private Acknowledgment ack;
+
+    @Mock
+    private MessageDeduplicator deduplicator;
+
+    private MissionEventBatchTopicListener messageListener;
+
+    @Before
+    public void init() {
+        initMocks(this);
+        messageListener = new MissionEventBatchTopicListener();
+        setField(messageListener, null, ptm, PlatformTransactionManager.class);
+        setField(messageListener, null, processService, ProcessService.class);
+        setField(messageListener, null, new CloudEventPayloadCodec(), CloudEventPayloadCodec.class);
+        setField(messageListener, null, deduplicator, MessageDeduplicator.class);
+        setField(messageListener, null, new ProcessInstanceIdCache(processService, 100, Duration.ofHours(1)), ProcessInstanceIdCache.class);
+        setField(messageListener, "transactionSize", 2, null);
+        when(ptm.getTransaction(any())).thenReturn(transactionStatus);
+        when(processInstance.getId()).thenReturn(100L);
+    }
+
+    @Test
+    public void testProcessMessages() {
+
+        when(processService.getProcessInstance(any(CorrelationKey.class))).thenReturn(processInstance);
+
+        messageListener.processMessages(Arrays.asList(
+                record(0, event("MissionStartedEvent", "incident123")),
+                record(1, event("MissionStartedEvent", "incident456")),
+                record(2, event("MissionPickedUpEvent", "incident123"))), ack);
+
+        InOrder inOrder = inOrder(processService);
+        inOrder.verify(processService, times(2)).signalProcessInstance(100L, "MissionStarted", null);
+        inOrder.verify(processService).signalProcessInstance(100L, "VictimPickedUp", null);
+        verify(ptm, times(2)).commit(transactionStatus);
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    public void testProcessMessagesWhenChunkFails() {
+
+        when(processService.getProcessInstance(any(CorrelationKey.class))).thenReturn(processInstance);
+        doThrow(new RuntimeException("error")).doNothing()
+                .when(processService).signalProcessInstance(eq(100L), eq("MissionStarted"), any());
+
+        messageListener.processMessages(Collections.singletonList(
+                record(0, event("MissionStartedEvent", "incident123"))), ack);
+
+        verify(processService, times(2)).signalProcessInstance(100L, "MissionStarted", null);
+        verify(ptm).rollback(transactionStatus);
+        verify(ptm).commit(transactionStatus);
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    public void testProcessMessagesWhenLaterChunkFailsWithoutRetryRouter() {
+
+        when(processService.getProcessInstance(any(CorrelationKey.class))).thenReturn(processInstance);
+        doThrow(new RuntimeException("error"))
+                .when(processService).signalProcessInstance(eq(100L), eq("VictimPickedUp"), any());
+
+        try {
+            messageListener.processMessages(Arrays.asList(
+                    record(0, event("MissionStartedEvent", "incident123")),
+                    record(1, event("MissionStartedEvent", "incident456")),
+                    record(2, event("MissionPickedUpEvent", "incident123"))), ack);
+            fail("Expected BatchRecordFailedException");
+        } catch (BatchRecordFailedException e) {
+            assertThat(e.getTopic(), equalTo("topic"));
+            assertThat(e.getPartition(), equalTo(1));
+            assertThat(e.getOffset(), equalTo(2L));
+        }
+        verify(processService, times(2)).signalProcessInstance(100L, "MissionStarted", null);
+        verify(ptm).commit(transactionStatus);
+        verify(ptm, times(2)).rollback(transactionStatus);
+        verify(ack, never()).acknowledge();
+    }
+
+    @Test
+    public void testProcessMessagesWhenNotCloudEventOrWrongType() {
+
+        messageListener.processMessages(Arrays.asList(
+                record(0, null),
+                record(1, event("WrongMessageType", "incident123"))), ack);
+
+        verify(processService, never()).getProcessInstance(any(CorrelationKey.class));
+        verify(processService, never()).signalProcessInstance(any(), any(), any());
+        verify(ack).acknowledge();
+    }
+
+    private ConsumerRecord<String, CloudEvent> record(long offset, CloudEvent cloudEvent) {
+        return new ConsumerRecord<>("topic", 1, offset, "key", cloudEvent);
+    }
+
+    private CloudEvent event(String type, String incidentId) {
+        String json = "{" +
+                "\"missionId\" : \"mission123\"," +
+                "\"incidentId\" : \"" + incidentId + "\"," +
+                "\"responderId\" : \"responder123\"" +
+                "}";
+
+        return CloudEventBuilder.v1()
+                .withId(UUID.randomUUID().toString())
+                .withType(type)
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType("application/json")
+                .withData(json.getBytes())
+                .build();
+    }
+}
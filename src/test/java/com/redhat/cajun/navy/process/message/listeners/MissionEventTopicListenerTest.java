@@ -3,6 +3,8 @@ package com.redhat.cajun.navy.process.message.listeners;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -10,7 +12,14 @@ import static org.mockito.MockitoAnnotations.initMocks;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.net.URI;
-
+import java.time.Duration;
+import java.util.Collections;
+
+import com.redhat.cajun.navy.process.correlation.ProcessInstanceIdCache;
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.dedup.MessageDeduplicator;
+import com.redhat.cajun.navy.process.message.retry.InMemoryRetryPublisher;
+import com.redhat.cajun.navy.process.message.retry.RetryTopicRouter;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.core.builder.CloudEventBuilder;
 import org.jbpm.process.instance.ProcessInstance;
@@ -42,6 +51,9 @@ public class MissionEventTopicListenerTest {
     @Mock
     private Acknowledgment ack;
 
+    @Mock
+    private MessageDeduplicator deduplicator;
+
     @Captor
     private ArgumentCaptor<CorrelationKey> correlationCaptor;
 
@@ -53,6 +65,9 @@ public class MissionEventTopicListenerTest {
         messageListener = new MissionEventTopicListener();
         setField(messageListener, null, ptm, PlatformTransactionManager.class);
         setField(messageListener, null, processService, ProcessService.class);
+        setField(messageListener, null, new CloudEventPayloadCodec(), CloudEventPayloadCodec.class);
+        setField(messageListener, null, deduplicator, MessageDeduplicator.class);
+        setField(messageListener, null, new ProcessInstanceIdCache(processService, 100, Duration.ofHours(1)), ProcessInstanceIdCache.class);
         when(ptm.getTransaction(any())).thenReturn(transactionStatus);
         when(processInstance.getId()).thenReturn(100L);
     }
@@ -92,6 +107,32 @@ public class MissionEventTopicListenerTest {
         verify(ack).acknowledge();
     }
 
+    @Test
+    public void testProcessMissionStartedEventMessageWithProcessId() {
+
+        String json = "{" +
+                "\"missionId\" : \"mission123\"," +
+                "\"incidentId\" : \"incident123\"," +
+                "\"responderId\" : \"responder123\"" +
+                "}";
+
+        CloudEvent event = CloudEventBuilder.v1()
+                .withId("000")
+                .withType("MissionStartedEvent")
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType("application/json")
+                .withExtension("processid", "200")
+                .withData(json.getBytes())
+                .build();
+
+        messageListener.processMessage(event, "topic", 1, ack);
+
+        verify(processService, never()).getProcessInstance(any(CorrelationKey.class));
+        verify(processService).signalProcessInstance(200L, "MissionStarted", null);
+
+        verify(ack).acknowledge();
+    }
+
     @Test
     public void testProcessMissionStartedEventMessageWhenNotFound() {
 
@@ -404,4 +445,100 @@ public class MissionEventTopicListenerTest {
         verify(ack).acknowledge();
     }
 
+    @Test
+    public void testProcessMissionStartedEventMessageWhenSignalFailsRoutesToRetryTopic() {
+
+        InMemoryRetryPublisher publisher = new InMemoryRetryPublisher();
+        setField(messageListener, "retryRouter", new RetryTopicRouter(publisher, Collections.singletonList(1000L)), null);
+
+        String json = "{" +
+                "\"missionId\" : \"mission123\"," +
+                "\"incidentId\" : \"incident123\"," +
+                "\"responderId\" : \"responder123\"" +
+                "}";
+
+        CloudEvent event = CloudEventBuilder.v1()
+                .withId("000")
+                .withType("MissionStartedEvent")
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType("application/json")
+                .withData(json.getBytes())
+                .build();
+
+        when(processService.getProcessInstance(any(CorrelationKey.class))).thenReturn(processInstance);
+        doThrow(new RuntimeException("error")).when(processService).signalProcessInstance(eq(100L), eq("MissionStarted"), any());
+
+        messageListener.processMessage(event, "topic", 1, ack);
+
+        assertThat(publisher.getPublished().size(), equalTo(1));
+        assertThat(publisher.getPublished().get(0).topic, equalTo("topic-retry-1"));
+        assertThat(publisher.getPublished().get(0).key, equalTo("incident123"));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    public void testProcessMissionPickedUpEventMessageWhenIncidentInRetryIsParked() {
+
+        InMemoryRetryPublisher publisher = new InMemoryRetryPublisher();
+        RetryTopicRouter router = new RetryTopicRouter(publisher, Collections.singletonList(1000L));
+        setField(messageListener, "retryRouter", router, null);
+
+        String json = "{" +
+                "\"missionId\" : \"mission123\"," +
+                "\"incidentId\" : \"incident123\"," +
+                "\"responderId\" : \"responder123\"" +
+                "}";
+
+        CloudEvent started = CloudEventBuilder.v1()
+                .withId("000")
+                .withType("MissionStartedEvent")
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType("application/json")
+                .withData(json.getBytes())
+                .build();
+        CloudEvent pickedUp = CloudEventBuilder.v1()
+                .withId("001")
+                .withType("MissionPickedUpEvent")
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType("application/json")
+                .withData(json.getBytes())
+                .build();
+        router.route("topic", "incident123", started, 0);
+
+        messageListener.processMessage(pickedUp, "topic", 1, ack);
+
+        verify(processService, never()).signalProcessInstance(any(), any(), any());
+        assertThat(publisher.getPublished().size(), equalTo(2));
+        assertThat(publisher.getPublished().get(1).topic, equalTo("topic-retry-1"));
+        assertThat(publisher.getPublished().get(1).key, equalTo("incident123"));
+        assertThat(publisher.getPublished().get(1).headers.get(RetryTopicRouter.RETRY_ATTEMPT_HEADER), equalTo("0"));
+        assertThat(router.isNext("topic", "incident123", pickedUp), equalTo(false));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    public void testRetryOfProcessedMissionEventIsSkipped() throws Exception {
+
+        String json = "{" +
+                "\"missionId\" : \"mission123\"," +
+                "\"incidentId\" : \"incident123\"," +
+                "\"responderId\" : \"responder123\"" +
+                "}";
+
+        CloudEvent event = CloudEventBuilder.v1()
+                .withId("000")
+                .withType("MissionStartedEvent")
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType("application/json")
+                .withData(json.getBytes())
+                .build();
+
+        when(deduplicator.isDuplicate(event)).thenReturn(true);
+
+        messageListener.retry(event);
+
+        verify(processService, never()).getProcessInstance(any(CorrelationKey.class));
+        verify(processService, never()).signalProcessInstance(any(), any(), any());
+        verify(deduplicator, never()).markProcessed(any());
+    }
 }
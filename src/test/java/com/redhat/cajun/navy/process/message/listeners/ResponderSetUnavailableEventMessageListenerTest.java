@@ -10,7 +10,11 @@ import static org.mockito.MockitoAnnotations.initMocks;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.net.URI;
+import java.time.Duration;
 
+import com.redhat.cajun.navy.process.correlation.ProcessInstanceIdCache;
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
+import com.redhat.cajun.navy.process.message.dedup.MessageDeduplicator;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.core.builder.CloudEventBuilder;
 import org.jbpm.process.instance.ProcessInstance;
@@ -42,6 +46,9 @@ public class ResponderSetUnavailableEventMessageListenerTest {
     @Mock
     private Acknowledgment ack;
 
+    @Mock
+    private MessageDeduplicator deduplicator;
+
     @Captor
     private ArgumentCaptor<CorrelationKey> correlationKeyCaptor;
 
@@ -53,6 +60,9 @@ public class ResponderSetUnavailableEventMessageListenerTest {
         messageListener = new ResponderSetUnavailableEventMessageListener();
         setField(messageListener, null, ptm, PlatformTransactionManager.class);
         setField(messageListener, null, processService, ProcessService.class);
+        setField(messageListener, null, new CloudEventPayloadCodec(), CloudEventPayloadCodec.class);
+        setField(messageListener, null, deduplicator, MessageDeduplicator.class);
+        setField(messageListener, null, new ProcessInstanceIdCache(processService, 100, Duration.ofHours(1)), ProcessInstanceIdCache.class);
         when(ptm.getTransaction(any())).thenReturn(transactionStatus);
         when(processInstance.getId()).thenReturn(100L);
     }
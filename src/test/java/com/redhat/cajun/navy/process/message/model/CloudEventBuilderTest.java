@@ -2,10 +2,12 @@ package com.redhat.cajun.navy.process.message.model;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -37,6 +39,28 @@ public class CloudEventBuilderTest {
         assertThat(data.getValue().id, equalTo(event.id));
     }
 
+    @Test
+    public void testCloudEventIdsAreTimeOrdered() {
+        UUID previous = UUID.fromString(new CloudEventBuilder<TestEvent>().withType("TestEvent").build().getId());
+        for (int i = 0; i < 10000; i++) {
+            UUID id = UUID.fromString(new CloudEventBuilder<TestEvent>().withType("TestEvent").build().getId());
+            assertThat(id.version(), equalTo(7));
+            assertThat(id.variant(), equalTo(2));
+            assertThat(id.toString().compareTo(previous.toString()), greaterThan(0));
+            previous = id;
+        }
+    }
+
+    @Test
+    public void testSerializeCloudEventData() {
+        TestEvent event = TestEvent.build();
+        CloudEvent cloudEvent1 = new CloudEventBuilder<TestEvent>().withData(event).withType("TestEvent").build();
+        CloudEvent cloudEvent2 = new CloudEventBuilder<TestEvent>().withData(event).withType("TestEvent").build();
+
+        assertThat(new String(cloudEvent1.getData().toBytes(), StandardCharsets.UTF_8), equalTo("{\"id\":\"" + event.id + "\"}"));
+        assertThat(new String(cloudEvent2.getData().toBytes(), StandardCharsets.UTF_8), equalTo("{\"id\":\"" + event.id + "\"}"));
+    }
+
     @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
     public static class TestEvent {
 
@@ -0,0 +1,39 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.cloudevents.CloudEvent;
+
+public class InMemoryRetryPublisher implements RetryPublisher {
+
+    private final List<Published> published = new ArrayList<>();
+
+    @Override
+    public void publish(String topic, String key, CloudEvent cloudEvent, Map<String, String> headers) {
+        published.add(new Published(topic, key, cloudEvent, headers));
+    }
+
+    public List<Published> getPublished() {
+        return published;
+    }
+
+    public static class Published {
+
+        public final String topic;
+
+        public final String key;
+
+        public final CloudEvent cloudEvent;
+
+        public final Map<String, String> headers;
+
+        Published(String topic, String key, CloudEvent cloudEvent, Map<String, String> headers) {
+            this.topic = topic;
+            this.key = key;
+            this.cloudEvent = cloudEvent;
+            this.headers = headers;
+        }
+    }
+}
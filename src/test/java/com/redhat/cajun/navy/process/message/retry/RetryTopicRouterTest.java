@@ -0,0 +1,200 @@
+package com.redhat.cajun.navy.process.message.retry;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+public class RetryTopicRouterTest {
+
+    private InMemoryRetryPublisher publisher;
+
+    private RetryTopicRouter router;
+
+    @Before
+    public void init() {
+        publisher = new InMemoryRetryPublisher();
+        router = new RetryTopicRouter(publisher, Arrays.asList(1000L, 10000L));
+    }
+
+    @Test
+    public void testRouteToFirstRetryTopic() {
+        long now = System.currentTimeMillis();
+
+        router.route("topic-mission-event", "incident123", event(), 0);
+
+        assertThat(publisher.getPublished().size(), equalTo(1));
+        InMemoryRetryPublisher.Published published = publisher.getPublished().get(0);
+        assertThat(published.topic, equalTo("topic-mission-event-retry-1"));
+        assertThat(published.key, equalTo("incident123"));
+        assertThat(published.headers.get(RetryTopicRouter.RETRY_TOPIC_HEADER), equalTo("topic-mission-event"));
+        assertThat(published.headers.get(RetryTopicRouter.RETRY_ATTEMPT_HEADER), equalTo("1"));
+        assertThat(Long.parseLong(published.headers.get(RetryTopicRouter.RETRY_DUE_HEADER)), greaterThanOrEqualTo(now + 1000L));
+    }
+
+    @Test
+    public void testRouteToNextRetryTopic() {
+
+        router.route("topic-mission-event", "incident123", event(), 1);
+
+        assertThat(publisher.getPublished().get(0).topic, equalTo("topic-mission-event-retry-2"));
+        assertThat(publisher.getPublished().get(0).headers.get(RetryTopicRouter.RETRY_ATTEMPT_HEADER), equalTo("2"));
+    }
+
+    @Test
+    public void testRouteToDeadLetterTopic() {
+
+        router.route("topic-mission-event", "incident123", event(), 2);
+
+        InMemoryRetryPublisher.Published published = publisher.getPublished().get(0);
+        assertThat(published.topic, equalTo("topic-mission-event-dlt"));
+        assertThat(published.headers.get(RetryTopicRouter.RETRY_ATTEMPT_HEADER), equalTo("3"));
+        assertThat(published.headers.get(RetryTopicRouter.RETRY_DUE_HEADER), nullValue());
+    }
+
+    @Test
+    public void testLaterRecordsWaitForRecordInRetry() {
+        CloudEvent first = event("000");
+        CloudEvent second = event("001");
+
+        router.route("topic-mission-event", "incident123", first, 0);
+        assertThat(router.isParked("topic-mission-event", "incident123"), equalTo(true));
+        assertThat(router.isParked("topic-mission-event", "incident456"), equalTo(false));
+
+        router.park("topic-mission-event", "incident123", second);
+        assertThat(publisher.getPublished().get(1).topic, equalTo("topic-mission-event-retry-1"));
+        assertThat(publisher.getPublished().get(1).headers.get(RetryTopicRouter.RETRY_ATTEMPT_HEADER), equalTo("0"));
+        assertThat(router.isNext("topic-mission-event", "incident123", first), equalTo(true));
+        assertThat(router.isNext("topic-mission-event", "incident123", second), equalTo(false));
+
+        router.route("topic-mission-event", "incident123", first, 2);
+        assertThat(router.isNext("topic-mission-event", "incident123", second), equalTo(true));
+
+        router.completed("topic-mission-event", "incident123", second);
+        assertThat(router.isParked("topic-mission-event", "incident123"), equalTo(false));
+    }
+
+    @Test
+    public void testParkedRecordsAreSharedBetweenRouters() {
+        ParkedRecordStore store = new InMemoryParkedRecordStore(60000L);
+        RetryTopicRouter router = new RetryTopicRouter(publisher, Arrays.asList(1000L, 10000L), store);
+        RetryTopicRouter other = new RetryTopicRouter(new InMemoryRetryPublisher(), Arrays.asList(1000L, 10000L), store);
+        CloudEvent first = event("000");
+
+        router.route("topic-mission-event", "incident123", first, 0);
+        assertThat(other.isParked("topic-mission-event", "incident123"), equalTo(true));
+
+        other.completed("topic-mission-event", "incident123", first);
+        assertThat(router.isParked("topic-mission-event", "incident123"), equalTo(false));
+    }
+
+    @Test
+    public void testRecordIsReleasedWhenRetryPublishFails() {
+        RetryPublisher failing = mock(RetryPublisher.class);
+        doThrow(new IllegalStateException("send failed")).when(failing).publish(any(), any(), any(), any());
+        RetryTopicRouter router = new RetryTopicRouter(failing, Arrays.asList(1000L, 10000L));
+
+        try {
+            router.route("topic-mission-event", "incident123", event(), 0);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(router.isParked("topic-mission-event", "incident123"), equalTo(false));
+        }
+    }
+
+    @Test
+    public void testRetryListenerWaitsForDueRecordWithoutBlocking() throws Exception {
+        RetryableMessageHandler handler = mock(RetryableMessageHandler.class);
+        when(handler.getTopic()).thenReturn("topic-mission-event");
+        Acknowledgment ack = mock(Acknowledgment.class);
+        RetryTopicListener listener = new RetryTopicListener(null, router, Collections.singletonList(handler));
+
+        ConsumerRecord<String, CloudEvent> record = new ConsumerRecord<>("topic-mission-event-retry-1", 0, 0L, "incident123", event());
+        record.headers().add(RetryTopicRouter.RETRY_TOPIC_HEADER, "topic-mission-event".getBytes());
+        record.headers().add(RetryTopicRouter.RETRY_ATTEMPT_HEADER, "1".getBytes());
+        record.headers().add(RetryTopicRouter.RETRY_DUE_HEADER, Long.toString(System.currentTimeMillis() + 60000L).getBytes());
+
+        long wait = listener.onMessage(1, record, ack);
+
+        assertThat(wait, equalTo(1000L));
+        verify(handler, never()).retry(any());
+        verify(ack, never()).acknowledge();
+    }
+
+    @Test
+    public void testRetryListenerRequeuesRecordBehindEarlierRecordInRetry() throws Exception {
+        RetryableMessageHandler handler = mock(RetryableMessageHandler.class);
+        when(handler.getTopic()).thenReturn("topic-mission-event");
+        Acknowledgment ack = mock(Acknowledgment.class);
+        RetryTopicListener listener = new RetryTopicListener(null, router, Collections.singletonList(handler));
+        router.route("topic-mission-event", "incident123", event("000"), 1);
+        CloudEvent parked = event("001");
+        router.park("topic-mission-event", "incident123", parked);
+
+        ConsumerRecord<String, CloudEvent> record = new ConsumerRecord<>("topic-mission-event-retry-1", 0, 0L, "incident123", parked);
+        record.headers().add(RetryTopicRouter.RETRY_TOPIC_HEADER, "topic-mission-event".getBytes());
+        record.headers().add(RetryTopicRouter.RETRY_ATTEMPT_HEADER, "0".getBytes());
+        record.headers().add(RetryTopicRouter.RETRY_DUE_HEADER, "0".getBytes());
+
+        listener.onMessage(1, record, ack);
+
+        verify(handler, never()).retry(any());
+        assertThat(publisher.getPublished().size(), equalTo(3));
+        assertThat(publisher.getPublished().get(2).topic, equalTo("topic-mission-event-retry-1"));
+        assertThat(publisher.getPublished().get(2).headers.get(RetryTopicRouter.RETRY_ATTEMPT_HEADER), equalTo("0"));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    public void testRetryListenerRoutesFailedRetryToNextTier() throws Exception {
+        RetryableMessageHandler handler = mock(RetryableMessageHandler.class);
+        when(handler.getTopic()).thenReturn("topic-mission-event");
+        doThrow(new IllegalStateException("error")).when(handler).retry(any());
+        Acknowledgment ack = mock(Acknowledgment.class);
+        RetryTopicListener listener = new RetryTopicListener(null, router, Collections.singletonList(handler));
+
+        CloudEvent event = event();
+        ConsumerRecord<String, CloudEvent> record = new ConsumerRecord<>("topic-mission-event-retry-1", 0, 0L, "incident123", event);
+        record.headers().add(RetryTopicRouter.RETRY_TOPIC_HEADER, "topic-mission-event".getBytes());
+        record.headers().add(RetryTopicRouter.RETRY_ATTEMPT_HEADER, "1".getBytes());
+        record.headers().add(RetryTopicRouter.RETRY_DUE_HEADER, "0".getBytes());
+
+        listener.onMessage(1, record, ack);
+
+        verify(handler).retry(event);
+        assertThat(publisher.getPublished().get(0).topic, equalTo("topic-mission-event-retry-2"));
+        verify(ack).acknowledge();
+    }
+
+    private CloudEvent event() {
+        return event("000");
+    }
+
+    private CloudEvent event(String id) {
+        return CloudEventBuilder.v1()
+                .withId(id)
+                .withType("MissionStartedEvent")
+                .withSource(URI.create("http://example.com"))
+                .withDataContentType("application/json")
+                .withData("{\"incidentId\" : \"incident123\"}".getBytes())
+                .build();
+    }
+}
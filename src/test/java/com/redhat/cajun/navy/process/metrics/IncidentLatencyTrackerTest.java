@@ -0,0 +1,79 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IncidentLatencyTrackerTest {
+
+    private MeterRegistry meterRegistry;
+
+    private IncidentLatencyTracker tracker;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new IncidentLatencyTracker(100, Duration.ofHours(1));
+        tracker.bindTo(meterRegistry);
+    }
+
+    @Test
+    public void testTimeToAssignment() {
+        tracker.received("incident123", OffsetDateTime.now().minusSeconds(2));
+        tracker.mark("incident123", IncidentLatencyTracker.Stage.PROCESS_STARTED);
+        tracker.mark("incident123", IncidentLatencyTracker.Stage.ASSIGNED);
+        tracker.mark("incident123", IncidentLatencyTracker.Stage.MISSION_REQUESTED);
+        tracker.mark("incident123", IncidentLatencyTracker.Stage.MISSION_REQUESTED);
+
+        assertThat(timer("reported", "received").count(), equalTo(1L));
+        assertThat(timer("reported", "received").totalTime(TimeUnit.MILLISECONDS), greaterThanOrEqualTo(2000.0));
+        assertThat(timer("received", "process_started").count(), equalTo(1L));
+        assertThat(timer("process_started", "assigned").count(), equalTo(1L));
+        assertThat(timer("assigned", "mission_requested").count(), equalTo(1L));
+        assertThat(timer("reported", "mission_requested").count(), equalTo(1L));
+        assertThat(timer("mission_requested", "mission_started").count(), equalTo(0L));
+    }
+
+    @Test
+    public void testSignals() {
+        tracker.received("incident123", null);
+        tracker.mark("incident123", IncidentLatencyTracker.Stage.MISSION_REQUESTED);
+        tracker.signalled("incident123", "MissionStarted");
+        tracker.signalled("incident123", "VictimPickedUp");
+        tracker.signalled("incident123", "VictimDelivered");
+
+        assertThat(timer("mission_requested", "mission_started").count(), equalTo(1L));
+        assertThat(timer("mission_started", "victim_delivered").count(), equalTo(1L));
+        assertThat(timer("reported", "victim_delivered").count(), equalTo(0L));
+        assertThat(meterRegistry.get("incident.latency.tracked").gauge().value(), equalTo(0.0));
+        assertThat(meterRegistry.get("incident.latency.untracked").tag("stage", "assigned").functionCounter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("incident.latency.untracked").tag("stage", "mission_started").functionCounter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("incident.latency.untracked").tag("stage", "victim_delivered").functionCounter().count(), equalTo(0.0));
+    }
+
+    @Test
+    public void testUntrackedIncident() {
+        tracker.mark("incident123", IncidentLatencyTracker.Stage.ASSIGNED);
+        tracker.signalled("incident123", "MissionStarted");
+
+        assertThat(timer("process_started", "assigned").count(), equalTo(0L));
+        assertThat(meterRegistry.get("incident.latency.tracked").gauge().value(), equalTo(0.0));
+        assertThat(meterRegistry.get("incident.latency.untracked").tag("stage", "assigned").functionCounter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("incident.latency.untracked").tag("stage", "mission_started").functionCounter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get("incident.latency.untracked").tag("stage", "victim_delivered").functionCounter().count(), equalTo(0.0));
+    }
+
+    private Timer timer(String from, String to) {
+        return meterRegistry.get("incident.latency").tag("from", from).tag("to", to).timer();
+    }
+}
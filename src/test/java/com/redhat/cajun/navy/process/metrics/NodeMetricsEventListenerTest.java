@@ -0,0 +1,91 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.event.process.ProcessNodeLeftEvent;
+import org.kie.api.event.process.ProcessNodeTriggeredEvent;
+import org.kie.api.runtime.process.NodeInstance;
+import org.kie.api.runtime.process.ProcessInstance;
+
+public class NodeMetricsEventListenerTest {
+
+    private MeterRegistry meterRegistry;
+
+    private NodeMetricsEventListener listener;
+
+    private ProcessInstance processInstance;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new NodeMetricsEventListener(meterRegistry, 100, Duration.ofHours(1));
+        processInstance = mock(ProcessInstance.class);
+        when(processInstance.getId()).thenReturn(100L);
+    }
+
+    @Test
+    public void testNodeTriggeredAndLeft() {
+        NodeInstance nodeInstance = nodeInstance(1L, "Get Responders");
+
+        listener.beforeNodeTriggered(triggered(nodeInstance));
+        listener.afterNodeLeft(left(nodeInstance));
+        listener.afterNodeLeft(left(nodeInstance));
+
+        assertThat(count("Get Responders", "completed"), equalTo(1L));
+    }
+
+    @Test
+    public void testNodesOfAbortedProcess() {
+        NodeInstance nodeInstance1 = nodeInstance(1L, "Assign Mission");
+        NodeInstance nodeInstance2 = nodeInstance(2L, "Wait for Mission Started");
+        when(processInstance.getState()).thenReturn(ProcessInstance.STATE_ABORTED);
+        ProcessCompletedEvent completed = mock(ProcessCompletedEvent.class);
+        when(completed.getProcessInstance()).thenReturn(processInstance);
+
+        listener.beforeNodeTriggered(triggered(nodeInstance1));
+        listener.beforeNodeTriggered(triggered(nodeInstance2));
+        listener.afterNodeLeft(left(nodeInstance1));
+        listener.afterProcessCompleted(completed);
+        listener.afterNodeLeft(left(nodeInstance2));
+
+        assertThat(count("Assign Mission", "completed"), equalTo(1L));
+        assertThat(count("Wait for Mission Started", "aborted"), equalTo(1L));
+        assertThat(meterRegistry.find("process.node").tag("node", "Wait for Mission Started").tag("outcome", "completed").timer(), nullValue());
+    }
+
+    private NodeInstance nodeInstance(long id, String name) {
+        NodeInstance nodeInstance = mock(NodeInstance.class);
+        when(nodeInstance.getId()).thenReturn(id);
+        when(nodeInstance.getNodeName()).thenReturn(name);
+        return nodeInstance;
+    }
+
+    private ProcessNodeTriggeredEvent triggered(NodeInstance nodeInstance) {
+        ProcessNodeTriggeredEvent event = mock(ProcessNodeTriggeredEvent.class);
+        when(event.getProcessInstance()).thenReturn(processInstance);
+        when(event.getNodeInstance()).thenReturn(nodeInstance);
+        return event;
+    }
+
+    private ProcessNodeLeftEvent left(NodeInstance nodeInstance) {
+        ProcessNodeLeftEvent event = mock(ProcessNodeLeftEvent.class);
+        when(event.getProcessInstance()).thenReturn(processInstance);
+        when(event.getNodeInstance()).thenReturn(nodeInstance);
+        return event;
+    }
+
+    private long count(String node, String outcome) {
+        return meterRegistry.get("process.node").tag("node", node).tag("outcome", outcome).timer().count();
+    }
+}
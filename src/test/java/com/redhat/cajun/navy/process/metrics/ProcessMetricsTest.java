@@ -0,0 +1,79 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.util.Arrays;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.event.process.ProcessCompletedEvent;
+import org.kie.api.runtime.process.ProcessInstance;
+
+public class ProcessMetricsTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ProcessMetrics processMetrics;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        processMetrics = new ProcessMetrics();
+        processMetrics.bindTo(meterRegistry);
+    }
+
+    @Test
+    public void testProcessEvents() {
+        ProcessMetricsEventListener listener = new ProcessMetricsEventListener(processMetrics);
+        ProcessInstance processInstance = mock(ProcessInstance.class);
+        when(processInstance.getState()).thenReturn(ProcessInstance.STATE_COMPLETED);
+        ProcessCompletedEvent event = mock(ProcessCompletedEvent.class);
+        when(event.getProcessInstance()).thenReturn(processInstance);
+
+        listener.beforeProcessStarted(null);
+        listener.beforeProcessStarted(null);
+        listener.afterProcessCompleted(event);
+
+        assertThat(gauge("process.instances"), equalTo(2.0));
+        assertThat(gauge("process.instances.active"), equalTo(1.0));
+        assertThat(gauge("process.instances.completed"), equalTo(1.0));
+        assertThat(gauge("process.instances.aborted"), equalTo(0.0));
+    }
+
+    @Test
+    public void testReconcile() {
+        processMetrics.processStarted();
+        EntityManager entityManager = mock(EntityManager.class);
+        Query query = mock(Query.class);
+        when(entityManager.createNativeQuery(ProcessMetricsReconciler.COUNT_BY_STATUS_QUERY)).thenReturn(query);
+        when(query.getResultList()).thenReturn(Arrays.asList(
+                new Object[]{1, 5L},
+                new Object[]{2, 100L},
+                new Object[]{3, 2L},
+                new Object[]{4, 1L}));
+        ProcessMetricsReconciler reconciler = new ProcessMetricsReconciler();
+        setField(reconciler, null, entityManager, EntityManager.class);
+        setField(reconciler, null, processMetrics, ProcessMetrics.class);
+
+        reconciler.reconcile();
+
+        assertThat(gauge("process.instances"), equalTo(108.0));
+        assertThat(gauge("process.instances.active"), equalTo(5.0));
+        assertThat(gauge("process.instances.pending"), equalTo(0.0));
+        assertThat(gauge("process.instances.completed"), equalTo(100.0));
+        assertThat(gauge("process.instances.aborted"), equalTo(2.0));
+        assertThat(gauge("process.instances.suspended"), equalTo(1.0));
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,79 @@
+package com.redhat.cajun.navy.process.metrics;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemHandler;
+import org.kie.api.runtime.process.WorkItemManager;
+import org.kie.internal.runtime.Cacheable;
+
+public class WorkItemHandlerMetricsTest {
+
+    private MeterRegistry meterRegistry;
+
+    private WorkItemHandlerMetrics metrics;
+
+    @Before
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new WorkItemHandlerMetrics(meterRegistry);
+    }
+
+    @Test
+    public void testTimedWorkItemHandler() {
+        WorkItemHandler handler = mock(WorkItemHandler.class);
+        WorkItemHandler timed = metrics.timed("ResponderService", handler);
+
+        timed.executeWorkItem(mock(WorkItem.class), mock(WorkItemManager.class));
+        timed.executeWorkItem(mock(WorkItem.class), mock(WorkItemManager.class));
+
+        verify(handler, times(2)).executeWorkItem(any(), any());
+        assertThat(count("ResponderService", "success"), equalTo(2L));
+        assertThat(count("ResponderService", "error"), equalTo(0L));
+        assertThat(metrics.timed("ResponderService", timed), is(sameInstance(timed)));
+    }
+
+    @Test
+    public void testTimedWorkItemHandlerError() {
+        WorkItemHandler handler = mock(WorkItemHandler.class);
+        doThrow(new IllegalStateException("rules failed")).when(handler).executeWorkItem(any(), any());
+        WorkItemHandler timed = metrics.timed("BusinessRuleTask", handler);
+
+        try {
+            timed.executeWorkItem(mock(WorkItem.class), mock(WorkItemManager.class));
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertThat(count("BusinessRuleTask", "success"), equalTo(0L));
+        assertThat(count("BusinessRuleTask", "error"), equalTo(1L));
+    }
+
+    @Test
+    public void testClosesCacheableHandler() {
+        WorkItemHandler handler = mock(WorkItemHandler.class, withSettings().extraInterfaces(Cacheable.class));
+        WorkItemHandler timed = metrics.timed("BusinessRuleTask", handler);
+
+        assertThat(timed, is(instanceOf(Cacheable.class)));
+        ((Cacheable) timed).close();
+        verify((Cacheable) handler).close();
+    }
+
+    private long count(String handler, String outcome) {
+        return meterRegistry.get("process.workitem.handler").tag("handler", handler).tag("outcome", outcome).timer().count();
+    }
+}
@@ -3,12 +3,22 @@ package com.redhat.cajun.navy.process.outbox;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
+import java.io.ByteArrayInputStream;
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 import javax.persistence.EntityManager;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -17,11 +27,21 @@ import com.redhat.cajun.navy.process.message.model.CloudEventBuilder;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.SpecVersion;
 import io.cloudevents.types.Time;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 public class OutboxEmitterTest {
 
@@ -40,6 +60,14 @@ public class OutboxEmitterTest {
         setField(outboxEventEmitter, null, entityManager, EntityManager.class);
     }
 
+    @After
+    public void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(outboxEventEmitter);
+    }
+
     @Test
     public void testEmitCloudEvent() throws Exception {
         TestEvent testEvent = TestEvent.build();
@@ -61,15 +89,172 @@ public class OutboxEmitterTest {
         assertThat(event.getAggregateId(), equalTo("responder123"));
         assertThat(event.getType(), equalTo("TestEvent"));
         assertThat(event.getPayload(), equalTo(new ObjectMapper().writeValueAsString(testEvent)));
+        assertThat(event.getPayloadEncoding(), equalTo("text"));
         assertThat(event.getCeSpecVersion(), equalTo(SpecVersion.V1.toString()));
         assertThat(event.getCeDataContentType(), equalTo("application/json"));
         assertThat(event.getCeSource(), equalTo("emergency-response/process-service"));
         assertThat(event.getCeIncidentId(), equalTo("incident123"));
+        assertThat(event.getCeProcessId(), equalTo(""));
         assertThat(event.getCeTime(), notNullValue());
         OffsetDateTime offsetDateTime = Time.parseTime(event.getCeTime());
         assertThat(offsetDateTime, notNullValue());
     }
 
+    @Test
+    public void testEmitCloudEventsAreWrittenBeforeCommit() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        CloudEvent cloudEvent1 = cloudEvent("responder123");
+        CloudEvent cloudEvent2 = cloudEvent("responder456");
+
+        outboxEventEmitter.emitCloudEvent(cloudEvent1);
+        outboxEventEmitter.emitCloudEvent(cloudEvent2);
+        verify(entityManager, never()).persist(any());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations.size(), equalTo(1));
+        synchronizations.get(0).beforeCommit(false);
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager, times(2)).persist(outboxEventCaptor.capture());
+        inOrder.verify(entityManager, times(2)).remove(outboxEventCaptor.capture());
+        assertThat(outboxEventCaptor.getAllValues().size(), equalTo(4));
+        assertThat(outboxEventCaptor.getAllValues().get(0).getAggregateId(), equalTo("responder123"));
+        assertThat(outboxEventCaptor.getAllValues().get(1).getAggregateId(), equalTo("responder456"));
+        assertThat(TransactionSynchronizationManager.hasResource(outboxEventEmitter), equalTo(false));
+    }
+
+    @Test
+    public void testEmitCloudEventsAreDiscardedOnRollback() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+
+        outboxEventEmitter.emitCloudEvent(cloudEvent("responder123"));
+        TransactionSynchronizationManager.getSynchronizations().get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(entityManager, never()).persist(any());
+        verify(entityManager, never()).remove(any());
+    }
+
+    @Test
+    public void testEmitCloudEventsInNestedTransaction() throws Exception {
+        TestTransactionManager transactionManager = new TestTransactionManager();
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.execute((TransactionStatus s) -> {
+            outboxEventEmitter.emitCloudEvent(cloudEvent("responder123"));
+            inner.execute((TransactionStatus n) -> {
+                outboxEventEmitter.emitCloudEvent(cloudEvent("responder456"));
+                return null;
+            });
+            verify(entityManager, times(1)).persist(outboxEventCaptor.capture());
+            assertThat(outboxEventCaptor.getValue().getAggregateId(), equalTo("responder456"));
+            outboxEventEmitter.emitCloudEvent(cloudEvent("responder789"));
+            return null;
+        });
+
+        verify(entityManager, times(3)).persist(outboxEventCaptor.capture());
+        List<OutboxEvent> persisted = outboxEventCaptor.getAllValues();
+        assertThat(persisted.get(persisted.size() - 2).getAggregateId(), equalTo("responder123"));
+        assertThat(persisted.get(persisted.size() - 1).getAggregateId(), equalTo("responder789"));
+        assertThat(TransactionSynchronizationManager.hasResource(outboxEventEmitter), equalTo(false));
+    }
+
+    @Test
+    public void testEmitCloudEventWithBinaryPayload() throws Exception {
+        setField(outboxEventEmitter, "payloadFormat", "binary");
+        setField(outboxEventEmitter, "compressionThreshold", 1024);
+        CloudEvent cloudEvent = cloudEvent("responder123");
+
+        outboxEventEmitter.emitCloudEvent(cloudEvent);
+        verify(entityManager).persist(outboxEventCaptor.capture());
+
+        OutboxEvent event = outboxEventCaptor.getValue();
+        assertThat(event.getPayload(), nullValue());
+        assertThat(event.getPayloadEncoding(), equalTo("binary"));
+        assertThat(event.getPayloadBytes(), equalTo(cloudEvent.getData().toBytes()));
+    }
+
+    @Test
+    public void testEmitCloudEventWithCompressedPayload() throws Exception {
+        setField(outboxEventEmitter, "payloadFormat", "binary");
+        setField(outboxEventEmitter, "compressionThreshold", 10);
+        CloudEvent cloudEvent = cloudEvent("responder123");
+
+        outboxEventEmitter.emitCloudEvent(cloudEvent);
+        verify(entityManager).persist(outboxEventCaptor.capture());
+
+        OutboxEvent event = outboxEventCaptor.getValue();
+        assertThat(event.getPayload(), nullValue());
+        assertThat(event.getPayloadEncoding(), equalTo("gzip"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(event.getPayloadBytes()))) {
+            assertThat(IOUtils.toByteArray(in), equalTo(cloudEvent.getData().toBytes()));
+        }
+    }
+
+    @Test
+    public void testEmitCloudEventInRelayMode() throws Exception {
+        setField(outboxEventEmitter, "mode", "relay");
+
+        outboxEventEmitter.emitCloudEvent(cloudEvent("responder123"));
+
+        verify(entityManager).persist(outboxEventCaptor.capture());
+        verify(entityManager, never()).remove(any());
+        assertThat(outboxEventCaptor.getValue().getCreatedAt(), notNullValue());
+    }
+
+    private CloudEvent cloudEvent(String aggregateId) {
+        return new CloudEventBuilder<TestEvent>()
+                .withType("TestEvent")
+                .withExtension("incidentid", "incident123")
+                .withExtension("aggregatetype", "responder-command")
+                .withExtension("aggregateid", aggregateId)
+                .withData(TestEvent.build())
+                .build();
+    }
+
+    // tracks the active transaction on a stack, enough for the transaction synchronizations to be suspended and resumed
+    private static class TestTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final Deque<Object> active = new ArrayDeque<>();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return !active.isEmpty();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active.push(transaction);
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            return active.pop();
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            active.push(suspendedResources);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            active.pop();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            active.pop();
+        }
+    }
+
     @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
     public static class TestEvent {
 
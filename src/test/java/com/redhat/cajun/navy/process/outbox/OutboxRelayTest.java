@@ -0,0 +1,181 @@
+package com.redhat.cajun.navy.process.outbox;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.types.Time;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+public class OutboxRelayTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private KafkaTemplate<String, CloudEvent> kafkaTemplate;
+
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, CloudEvent>> recordCaptor;
+
+    private Query claim;
+
+    private Query select;
+
+    private OutboxRelay relay;
+
+    @Before
+    public void init() {
+        initMocks(this);
+        relay = new OutboxRelay();
+        setField(relay, null, entityManager, EntityManager.class);
+        setField(relay, null, kafkaTemplate, KafkaTemplate.class);
+        setField(relay, "batchSize", 10);
+        setField(relay, "buckets", 64);
+        setField(relay, "sendTimeout", 1000L);
+        claim = mock(Query.class, RETURNS_SELF);
+        when(claim.getResultList()).thenReturn(Arrays.asList(3, 17));
+        when(entityManager.createNativeQuery(OutboxRelay.CLAIM_BUCKETS_QUERY)).thenReturn(claim);
+        select = mock(Query.class, RETURNS_SELF);
+        when(entityManager.createNativeQuery(OutboxRelay.CLAIMED_EVENTS_QUERY, OutboxEvent.class)).thenReturn(select);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRelayBatch() {
+        OutboxEvent event1 = event("responder123", "{\"id\":\"1\"}");
+        OutboxEvent event2 = event("responder456", "{\"id\":\"2\"}");
+        when(select.getResultList()).thenReturn(Arrays.asList(event1, event2));
+        Query delete = mock(Query.class, RETURNS_SELF);
+        when(delete.executeUpdate()).thenReturn(2);
+        when(entityManager.createQuery(anyString())).thenReturn(delete);
+        SettableListenableFuture<SendResult<String, CloudEvent>> future = new SettableListenableFuture<>();
+        future.set(null);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
+
+        int relayed = relay.relayBatch();
+
+        assertThat(relayed, equalTo(2));
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        ProducerRecord<String, CloudEvent> record = recordCaptor.getAllValues().get(0);
+        assertThat(record.topic(), equalTo("topic-responder-command"));
+        assertThat(record.key(), equalTo("responder123"));
+        assertThat(record.value().getId(), equalTo(event1.getId().toString()));
+        verify(select).setParameter("claimed", Arrays.asList(3, 17));
+        verify(delete).setParameter("ids", Arrays.asList(event1.getId(), event2.getId()));
+        verify(delete).executeUpdate();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRelayBatchIsNotDeletedWhenPublishFails() {
+        when(select.getResultList()).thenReturn(Collections.singletonList(event("responder123", "{}")));
+        SettableListenableFuture<SendResult<String, CloudEvent>> future = new SettableListenableFuture<>();
+        future.setException(new IllegalStateException("broker unavailable"));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(future);
+
+        try {
+            relay.relayBatch();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        verify(entityManager, never()).createQuery(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRelayBatchIsSkippedWhenOtherInstancesHoldAllBuckets() {
+        when(claim.getResultList()).thenReturn(Collections.emptyList());
+
+        int relayed = relay.relayBatch();
+
+        assertThat(relayed, equalTo(0));
+        verify(entityManager, never()).createNativeQuery(OutboxRelay.CLAIMED_EVENTS_QUERY, OutboxEvent.class);
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    public void testCloudEvent() {
+        OutboxEvent event = event("responder123", "{\"id\":\"1\"}");
+        event.setCeProcessId("");
+
+        CloudEvent cloudEvent = OutboxRelay.cloudEvent(event);
+
+        assertThat(cloudEvent.getId(), equalTo(event.getId().toString()));
+        assertThat(cloudEvent.getType(), equalTo("UpdateResponderCommand"));
+        assertThat(cloudEvent.getSource().toString(), equalTo("emergency-response/process-service"));
+        assertThat(cloudEvent.getDataContentType(), equalTo("application/json"));
+        assertThat(cloudEvent.getExtension("incidentid"), equalTo("incident123"));
+        assertThat(cloudEvent.getExtension("processid"), nullValue());
+        assertThat(new String(cloudEvent.getData().toBytes(), StandardCharsets.UTF_8), equalTo("{\"id\":\"1\"}"));
+    }
+
+    @Test
+    public void testCompressedPayload() throws Exception {
+        OutboxEvent event = event("responder123", null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+        }
+        event.setPayloadBytes(out.toByteArray());
+        event.setPayloadEncoding("gzip");
+
+        assertThat(new String(OutboxRelay.payload(event), StandardCharsets.UTF_8), equalTo("{\"id\":\"1\"}"));
+    }
+
+    @Test
+    public void testPartitionDay() {
+        assertThat(OutboxRelay.partitionDay("process_service_outbox_p20261018"), equalTo(LocalDate.of(2026, 10, 18)));
+        assertThat(OutboxRelay.partitionDay("process_service_outbox_default"), nullValue());
+        assertThat(OutboxRelay.partitionDay("other_table"), nullValue());
+    }
+
+    private OutboxEvent event(String aggregateId, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(UUID.randomUUID());
+        event.setAggregateType("topic-responder-command");
+        event.setAggregateId(aggregateId);
+        event.setType("UpdateResponderCommand");
+        event.setPayload(payload);
+        event.setPayloadEncoding("text");
+        event.setCeSpecVersion("1.0");
+        event.setCeSource("emergency-response/process-service");
+        event.setCeTime(Time.writeTime(OffsetDateTime.now()));
+        event.setCeDataContentType("application/json");
+        event.setCeIncidentId("incident123");
+        event.setCreatedAt(Instant.now());
+        return event;
+    }
+}
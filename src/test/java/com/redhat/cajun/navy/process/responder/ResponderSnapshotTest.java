@@ -0,0 +1,113 @@
+package com.redhat.cajun.navy.process.responder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.redhat.cajun.navy.rules.model.Responder;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResponderSnapshotTest {
+
+    private ResponderSnapshot snapshot;
+
+    @Before
+    public void init() {
+        snapshot = new ResponderSnapshot();
+        Map<String, ResponderSnapshot.Entry> entries = new HashMap<>();
+        entries.put("1", ResponderSnapshot.entry("John Doe", "111-222-333", 30.12345, -70.98765, 3, true, true, false));
+        entries.put("2", ResponderSnapshot.entry("John Foo", "999-888-777", 35.12345, -75.98765, 2, false, true, true));
+        snapshot.replace(entries);
+    }
+
+    @Test
+    public void testAvailableResponders() {
+        assertThat(snapshot.isReady(), is(true));
+        List<Responder> responders = snapshot.availableResponders(100);
+        assertThat(responders.size(), equalTo(2));
+        Responder responder = responders.stream().filter(r -> r.getId().equals("1")).findFirst().get();
+        assertThat(responder.getFullname(), equalTo("John Doe"));
+        assertThat(responder.getPhoneNumber(), equalTo("111-222-333"));
+        assertThat(responder.getLatitude(), equalTo(new BigDecimal("30.12345")));
+        assertThat(responder.getLongitude(), equalTo(new BigDecimal("-70.98765")));
+        assertThat(responder.getBoatCapacity(), equalTo(3));
+        assertThat(responder.getHasMedical(), is(true));
+        assertThat(responder.getPerson(), is(false));
+    }
+
+    @Test
+    public void testLimit() {
+        assertThat(snapshot.availableResponders(1).size(), equalTo(1));
+    }
+
+    @Test
+    public void testUpdateSetsResponderUnavailable() {
+        snapshot.update("1", null, null, null, null, null, null, false, null);
+        List<Responder> responders = snapshot.availableResponders(100);
+        assertThat(responders.size(), equalTo(1));
+        assertThat(responders.get(0).getId(), equalTo("2"));
+    }
+
+    @Test
+    public void testUpdateMergesWithExistingEntry() {
+        snapshot.update("2", null, null, 36.0, -76.0, null, true, null, null);
+        Responder responder = snapshot.availableResponders(100).stream().filter(r -> r.getId().equals("2")).findFirst().get();
+        assertThat(responder.getFullname(), equalTo("John Foo"));
+        assertThat(responder.getLatitude(), equalTo(new BigDecimal("36.0")));
+        assertThat(responder.getLongitude(), equalTo(new BigDecimal("-76.0")));
+        assertThat(responder.getBoatCapacity(), equalTo(2));
+        assertThat(responder.getHasMedical(), is(true));
+        assertThat(responder.getPerson(), is(true));
+    }
+
+    @Test
+    public void testUpdateAddsNewAvailableResponder() {
+        snapshot.update("3", "Jane Doe", "123-456-789", 31.0, -71.0, 4, false, true, true);
+        assertThat(snapshot.size(), equalTo(3));
+        assertThat(snapshot.availableResponders(100).size(), equalTo(3));
+    }
+
+    @Test
+    public void testUpdateIgnoresUnknownUnavailableResponder() {
+        snapshot.update("3", "Jane Doe", "123-456-789", 31.0, -71.0, 4, false, false, true);
+        assertThat(snapshot.size(), equalTo(2));
+    }
+
+    @Test
+    public void testUpdatesDuringRefreshSurviveReplace() {
+        snapshot.beginRefresh();
+        snapshot.update("1", null, null, null, null, null, null, false, null);
+        snapshot.update("3", "Jane Doe", "123-456-789", 31.0, -71.0, 4, false, true, true);
+
+        // fetched before the updates were applied
+        Map<String, ResponderSnapshot.Entry> entries = new HashMap<>();
+        entries.put("1", ResponderSnapshot.entry("John Doe", "111-222-333", 30.12345, -70.98765, 3, true, true, false));
+        entries.put("2", ResponderSnapshot.entry("John Foo", "999-888-777", 35.12345, -75.98765, 2, false, true, true));
+        snapshot.replace(entries);
+
+        List<Responder> responders = snapshot.availableResponders(100);
+        assertThat(responders.size(), equalTo(2));
+        assertThat(responders.stream().noneMatch(r -> r.getId().equals("1")), is(true));
+        assertThat(responders.stream().anyMatch(r -> r.getId().equals("3")), is(true));
+    }
+
+    @Test
+    public void testUpdatesAreNotReplayedAfterCancelledRefresh() {
+        snapshot.beginRefresh();
+        snapshot.update("1", null, null, null, null, null, null, false, null);
+        snapshot.cancelRefresh();
+        snapshot.update("1", null, null, null, null, null, null, true, null);
+
+        Map<String, ResponderSnapshot.Entry> entries = new HashMap<>();
+        entries.put("1", ResponderSnapshot.entry("John Doe", "111-222-333", 30.12345, -70.98765, 3, true, true, false));
+        snapshot.replace(entries);
+
+        assertThat(snapshot.availableResponders(100).size(), equalTo(1));
+    }
+}
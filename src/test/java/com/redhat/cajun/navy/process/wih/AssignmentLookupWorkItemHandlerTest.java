@@ -0,0 +1,199 @@
+package com.redhat.cajun.navy.process.wih;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.redhat.cajun.navy.rules.model.Destinations;
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import com.redhat.cajun.navy.rules.model.Responders;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemManager;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+public class AssignmentLookupWorkItemHandlerTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    @Mock
+    private WorkItem workItem;
+
+    @Mock
+    private WorkItemManager workItemManager;
+
+    @Captor
+    private ArgumentCaptor<Map<String, Object>> resultsCaptor;
+
+    private AssignmentLookupWorkItemHandler wih;
+
+    @Before
+    public void init() {
+        initMocks(this);
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setReadTimeout(2000);
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+
+        GetIncidentPriorityRestWorkItemHandler incidentPriorityHandler = new GetIncidentPriorityRestWorkItemHandler();
+        setField(incidentPriorityHandler, null, restTemplate, RestTemplate.class);
+        setField(incidentPriorityHandler, "serviceScheme", "http");
+        setField(incidentPriorityHandler, "serviceUrl", "localhost:" + wireMockRule.port());
+        setField(incidentPriorityHandler, "incidentPriorityPath", "/priority/{incidentId}");
+
+        GetRespondersRestWorkItemHandler respondersHandler = new GetRespondersRestWorkItemHandler();
+        setField(respondersHandler, null, restTemplate, RestTemplate.class);
+        setField(respondersHandler, "responderServiceScheme", "http");
+        setField(respondersHandler, "responderServiceUrl", "localhost:" + wireMockRule.port());
+        setField(respondersHandler, "availableRespondersPath", "/responders/available");
+        setField(respondersHandler, "availableRespondersLimit", 100);
+
+        GetSheltersRestWorkItemHandler sheltersHandler = new GetSheltersRestWorkItemHandler();
+        setField(sheltersHandler, null, restTemplate, RestTemplate.class);
+        setField(sheltersHandler, "disasterServiceScheme", "http");
+        setField(sheltersHandler, "disasterServiceUrl", "localhost:" + wireMockRule.port());
+        setField(sheltersHandler, "sheltersPath", "/shelters");
+
+        wih = new AssignmentLookupWorkItemHandler();
+        setField(wih, null, incidentPriorityHandler, GetIncidentPriorityRestWorkItemHandler.class);
+        setField(wih, null, respondersHandler, GetRespondersRestWorkItemHandler.class);
+        setField(wih, null, sheltersHandler, GetSheltersRestWorkItemHandler.class);
+        setField(wih, "threads", 3);
+        setField(wih, "queueCapacity", 10);
+        setField(wih, "timeout", 1000L);
+        wih.init();
+
+        Incident incident = new Incident();
+        incident.setId("incident123");
+        when(workItem.getParameter("Incident")).thenReturn(incident);
+        when(workItem.getId()).thenReturn(1L);
+    }
+
+    @After
+    public void shutdown() {
+        wih.shutdown();
+    }
+
+    @Test
+    public void testWorkItemHandler() throws Exception {
+        stubPriority(0);
+        stubResponders(0);
+        stubShelters(0);
+
+        wih.executeWorkItem(workItem, workItemManager);
+
+        verify(getRequestedFor(urlEqualTo("/priority/incident123")));
+        verify(getRequestedFor(urlEqualTo("/responders/available?limit=100")));
+        verify(getRequestedFor(urlEqualTo("/shelters")));
+        Mockito.verify(workItemManager).completeWorkItem(eq(1L), resultsCaptor.capture());
+        Map<String, Object> results = resultsCaptor.getValue();
+        assertThat(((IncidentPriority) results.get("IncidentPriority")).getPriority(), equalTo(new BigDecimal(1)));
+        assertThat(isEmpty(((Responders) results.get("Responders")).getResponders()), is(false));
+        assertThat(isEmpty(((Destinations) results.get("destinations")).getDestinations()), is(false));
+    }
+
+    @Test
+    public void testWorkItemHandlerWhenServiceTimesOut() throws Exception {
+        stubPriority(0);
+        stubResponders(1500);
+        stubShelters(0);
+
+        long start = System.currentTimeMillis();
+        wih.executeWorkItem(workItem, workItemManager);
+
+        assertThat(System.currentTimeMillis() - start < 1500, is(true));
+        Mockito.verify(workItemManager).completeWorkItem(eq(1L), resultsCaptor.capture());
+        Map<String, Object> results = resultsCaptor.getValue();
+        assertThat(((IncidentPriority) results.get("IncidentPriority")).getPriority(), equalTo(new BigDecimal(1)));
+        assertThat(isEmpty(((Responders) results.get("Responders")).getResponders()), is(true));
+        assertThat(isEmpty(((Destinations) results.get("destinations")).getDestinations()), is(false));
+    }
+
+    @Test
+    public void testWorkItemHandlerWhenServiceFails() throws Exception {
+        stubPriority(0);
+        stubResponders(0);
+        stubFor(get(urlEqualTo("/shelters")).willReturn(aResponse().withStatus(500)));
+
+        wih.executeWorkItem(workItem, workItemManager);
+
+        Mockito.verify(workItemManager).completeWorkItem(eq(1L), resultsCaptor.capture());
+        Map<String, Object> results = resultsCaptor.getValue();
+        assertThat(isEmpty(((Responders) results.get("Responders")).getResponders()), is(false));
+        assertThat(isEmpty(((Destinations) results.get("destinations")).getDestinations()), is(true));
+    }
+
+    @Test
+    public void testWorkItemHandlerWhenPoolIsSaturated() throws Exception {
+        wih.shutdown();
+        setField(wih, "threads", 1);
+        setField(wih, "queueCapacity", 1);
+        wih.init();
+        stubPriority(200);
+        stubResponders(0);
+        stubShelters(0);
+
+        wih.executeWorkItem(workItem, workItemManager);
+
+        verify(0, getRequestedFor(urlEqualTo("/shelters")));
+        Mockito.verify(workItemManager).completeWorkItem(eq(1L), resultsCaptor.capture());
+        Map<String, Object> results = resultsCaptor.getValue();
+        assertThat(((IncidentPriority) results.get("IncidentPriority")).getPriority(), equalTo(new BigDecimal(1)));
+        assertThat(isEmpty(((Responders) results.get("Responders")).getResponders()), is(false));
+        assertThat(isEmpty(((Destinations) results.get("destinations")).getDestinations()), is(true));
+    }
+
+    private boolean isEmpty(List<?> list) {
+        return list == null || list.isEmpty();
+    }
+
+    private void stubPriority(int delay) {
+        String ip = "{" + "\"incidentId\": \"incident123\"," + "\"priority\": 1,"
+                + "\"average\": 2.5," + "\"incidents\": 3" +"}";
+        stubFor(get(urlEqualTo("/priority/incident123")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json")
+                        .withFixedDelay(delay).withBody(ip)));
+    }
+
+    private void stubResponders(int delay) throws Exception {
+        InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream("response-service-response.json");
+        stubFor(get(urlEqualTo("/responders/available?limit=100")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json")
+                        .withFixedDelay(delay).withBody(IOUtils.toString(is, Charset.defaultCharset()))));
+    }
+
+    private void stubShelters(int delay) throws Exception {
+        InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream("disaster-service-response.json");
+        stubFor(get(urlEqualTo("/shelters")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json")
+                        .withFixedDelay(delay).withBody(IOUtils.toString(is, Charset.defaultCharset()))));
+    }
+}
@@ -0,0 +1,301 @@
+package com.redhat.cajun.navy.process.wih;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.jbpm.services.api.ProcessService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.runtime.process.WorkItem;
+import org.kie.api.runtime.process.WorkItemManager;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class AsyncWorkItemExecutorTest {
+
+    @Mock
+    private ProcessService processService;
+
+    @Mock
+    private PlatformTransactionManager ptm;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @Mock
+    private ApplicationContext context;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query query;
+
+    @Mock
+    private Query releaseQuery;
+
+    @Mock
+    private WorkItem workItem;
+
+    @Mock
+    private WorkItemManager workItemManager;
+
+    @Mock
+    private AsyncWorkItemHandler handler;
+
+    @Captor
+    private ArgumentCaptor<Map<String, Object>> resultsCaptor;
+
+    @Captor
+    private ArgumentCaptor<TransactionDefinition> definitionCaptor;
+
+    private AsyncWorkItemExecutor asyncExecutor;
+
+    @Before
+    public void init() {
+        initMocks(this);
+        asyncExecutor = new AsyncWorkItemExecutor();
+        setField(asyncExecutor, null, processService, ProcessService.class);
+        setField(asyncExecutor, null, ptm, PlatformTransactionManager.class);
+        setField(asyncExecutor, null, context, ApplicationContext.class);
+        setField(asyncExecutor, null, entityManager, EntityManager.class);
+        setField(asyncExecutor, "threads", 1);
+        setField(asyncExecutor, "queueCapacity", 10);
+        setField(asyncExecutor, "maxAttempts", 3);
+        setField(asyncExecutor, "retryBackoff", 10L);
+        setField(asyncExecutor, "staleAfter", 120000L);
+        asyncExecutor.init();
+        when(ptm.getTransaction(any())).thenReturn(transactionStatus);
+        when(workItem.getId()).thenReturn(1L);
+        when(handler.lookup(workItem)).thenReturn(CompletableFuture.completedFuture(Collections.singletonMap("key", "value")));
+    }
+
+    @After
+    public void cleanup() {
+        asyncExecutor.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testWorkItemIsCompletedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        asyncExecutor.execute(workItem, workItemManager, handler);
+
+        verify(handler, never()).lookup(any());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations.size(), equalTo(1));
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(processService, timeout(5000)).completeWorkItem(eq(1L), resultsCaptor.capture());
+        assertThat(resultsCaptor.getValue().get("key"), equalTo("value"));
+        verify(ptm, timeout(5000)).commit(transactionStatus);
+        verify(workItemManager, never()).completeWorkItem(anyLong(), any());
+    }
+
+    @Test
+    public void testWorkItemIsCompletedInNewTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        asyncExecutor.execute(workItem, workItemManager, handler);
+        TransactionSynchronizationManager.getSynchronizations().get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(processService, timeout(5000)).completeWorkItem(eq(1L), any());
+        verify(ptm).getTransaction(definitionCaptor.capture());
+        assertThat(definitionCaptor.getValue().getPropagationBehavior(), equalTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    @Test
+    public void testWorkItemIsNotCompletedAfterRollback() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+
+        asyncExecutor.execute(workItem, workItemManager, handler);
+        TransactionSynchronizationManager.getSynchronizations().get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        Thread.sleep(100);
+        verify(handler, never()).lookup(any());
+        verify(processService, never()).completeWorkItem(anyLong(), any());
+        verify(workItemManager, never()).completeWorkItem(anyLong(), any());
+    }
+
+    @Test
+    public void testWorkItemIsCompletedSynchronouslyWithoutTransaction() {
+        asyncExecutor.execute(workItem, workItemManager, handler);
+
+        verify(workItemManager).completeWorkItem(eq(1L), resultsCaptor.capture());
+        assertThat(resultsCaptor.getValue().get("key"), equalTo("value"));
+        verify(processService, never()).completeWorkItem(anyLong(), any());
+    }
+
+    @Test
+    public void testAsyncWorkItemIsCompletedWhenResultsArrive() {
+        TransactionSynchronizationManager.initSynchronization();
+        CompletableFuture<Map<String, Object>> results = new CompletableFuture<>();
+        when(handler.lookup(workItem)).thenReturn(results);
+
+        asyncExecutor.execute(workItem, workItemManager, handler);
+        TransactionSynchronizationManager.getSynchronizations().get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(handler, timeout(5000)).lookup(workItem);
+        verify(processService, never()).completeWorkItem(anyLong(), any());
+        results.complete(Collections.singletonMap("key", "value"));
+
+        verify(processService, timeout(5000)).completeWorkItem(eq(1L), resultsCaptor.capture());
+        assertThat(resultsCaptor.getValue().get("key"), equalTo("value"));
+    }
+
+    @Test
+    public void testFailedLookupIsRetried() {
+        CompletableFuture<Map<String, Object>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("lookup failed"));
+        when(handler.lookup(workItem)).thenReturn(failed, CompletableFuture.completedFuture(Collections.singletonMap("key", "value")));
+
+        asyncExecutor.dispatch(workItem, handler);
+
+        verify(processService, timeout(5000)).completeWorkItem(eq(1L), resultsCaptor.capture());
+        assertThat(resultsCaptor.getValue().get("key"), equalTo("value"));
+        verify(handler, times(2)).lookup(workItem);
+        verify(processService, never()).abortWorkItem(anyLong());
+    }
+
+    @Test
+    public void testWorkItemIsAbortedAfterMaxAttempts() {
+        when(handler.lookup(workItem)).thenThrow(new IllegalStateException("lookup failed"));
+
+        asyncExecutor.dispatch(workItem, handler);
+
+        verify(processService, timeout(5000)).abortWorkItem(1L);
+        verify(handler, times(3)).lookup(workItem);
+        verify(processService, never()).completeWorkItem(anyLong(), any());
+    }
+
+    @Test
+    public void testFailedCompletionIsRetried() {
+        doThrow(new IllegalStateException("completion failed")).doNothing().when(processService).completeWorkItem(eq(1L), any());
+
+        asyncExecutor.dispatch(workItem, handler);
+
+        verify(processService, timeout(5000).times(2)).completeWorkItem(eq(1L), any());
+        verify(handler, times(1)).lookup(workItem);
+        verify(processService, never()).abortWorkItem(anyLong());
+    }
+
+    @Test
+    public void testSweepDispatchesClaimedWorkItems() {
+        when(context.getBeansOfType(AsyncWorkItemHandler.class)).thenReturn(Collections.singletonMap("IncidentPriorityService", handler));
+        when(entityManager.createNativeQuery(AsyncWorkItemExecutor.RELEASE_COMPLETED_CLAIMS_QUERY)).thenReturn(releaseQuery);
+        when(entityManager.createNativeQuery(AsyncWorkItemExecutor.CLAIM_PENDING_WORK_ITEMS_QUERY)).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(Collections.singletonList(new Object[]{1L, "IncidentPriorityService"}));
+        when(processService.getWorkItem(1L)).thenReturn(workItem);
+
+        asyncExecutor.sweep();
+
+        verify(processService, timeout(5000)).completeWorkItem(eq(1L), resultsCaptor.capture());
+        assertThat(resultsCaptor.getValue().get("key"), equalTo("value"));
+        verify(query).setParameter("lease", 120000L);
+        verify(releaseQuery).executeUpdate();
+        verify(ptm, timeout(5000).times(2)).commit(transactionStatus);
+    }
+
+    @Test
+    public void testPendingWorkItemIsDispatchedByOneExecutor() {
+        AsyncWorkItemExecutor other = new AsyncWorkItemExecutor();
+        setField(other, null, processService, ProcessService.class);
+        setField(other, null, ptm, PlatformTransactionManager.class);
+        setField(other, null, context, ApplicationContext.class);
+        setField(other, null, entityManager, EntityManager.class);
+        setField(other, "threads", 1);
+        setField(other, "queueCapacity", 10);
+        setField(other, "maxAttempts", 3);
+        setField(other, "retryBackoff", 10L);
+        setField(other, "staleAfter", 120000L);
+        other.init();
+        try {
+            when(context.getBeansOfType(AsyncWorkItemHandler.class)).thenReturn(Collections.singletonMap("IncidentPriorityService", handler));
+            when(entityManager.createNativeQuery(AsyncWorkItemExecutor.RELEASE_COMPLETED_CLAIMS_QUERY)).thenReturn(releaseQuery);
+            when(entityManager.createNativeQuery(AsyncWorkItemExecutor.CLAIM_PENDING_WORK_ITEMS_QUERY)).thenReturn(query);
+            when(query.setParameter(anyString(), any())).thenReturn(query);
+            // the claim of the first instance holds a lease, the second instance claims nothing
+            when(query.getResultList()).thenReturn(Collections.singletonList(new Object[]{1L, "IncidentPriorityService"}), Collections.emptyList());
+            when(processService.getWorkItem(1L)).thenReturn(workItem);
+
+            asyncExecutor.sweep();
+            other.sweep();
+
+            verify(processService, timeout(5000)).completeWorkItem(eq(1L), any());
+            verify(handler, times(1)).lookup(workItem);
+            verify(processService, times(1)).getWorkItem(1L);
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    public void testWorkItemIsLeftPendingWhenExecutorIsSaturated() throws Exception {
+        asyncExecutor.shutdown();
+        setField(asyncExecutor, "queueCapacity", 1);
+        asyncExecutor.init();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WorkItem second = workItem(2L);
+        WorkItem third = workItem(3L);
+        when(handler.lookup(workItem)).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return CompletableFuture.completedFuture(Collections.singletonMap("key", "value"));
+        });
+        when(handler.lookup(second)).thenReturn(CompletableFuture.completedFuture(Collections.singletonMap("key", "value")));
+
+        asyncExecutor.dispatch(workItem, handler);
+        assertThat(blocked.await(5, TimeUnit.SECONDS), equalTo(true));
+        asyncExecutor.dispatch(second, handler);
+        asyncExecutor.dispatch(third, handler);
+
+        verify(handler, never()).lookup(third);
+        release.countDown();
+        verify(processService, timeout(5000)).completeWorkItem(eq(2L), any());
+        verify(processService, never()).completeWorkItem(eq(3L), any());
+        // the sweep can dispatch it again
+        asyncExecutor.dispatch(third, handler);
+        verify(handler, timeout(5000)).lookup(third);
+    }
+
+    private WorkItem workItem(long id) {
+        WorkItem workItem = mock(WorkItem.class);
+        when(workItem.getId()).thenReturn(id);
+        return workItem;
+    }
+}
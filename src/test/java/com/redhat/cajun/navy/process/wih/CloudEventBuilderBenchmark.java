@@ -0,0 +1,103 @@
+package com.redhat.cajun.navy.process.wih;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.cajun.navy.rules.model.Incident;
+import com.redhat.cajun.navy.rules.model.Mission;
+import com.redhat.cajun.navy.rules.model.Status;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CloudEventBuilderBenchmark {
+
+    private Map<String, Object> missionParameters;
+
+    private Map<String, Object> incidentParameters;
+
+    @Setup
+    public void setup() {
+        Mission mission = new Mission();
+        mission.setIncidentId("incident123");
+        mission.setIncidentLat(new BigDecimal("30.12345"));
+        mission.setIncidentLong(new BigDecimal("-70.98765"));
+        mission.setResponderId("responder123");
+        mission.setResponderStartLat(new BigDecimal("40.12345"));
+        mission.setResponderStartLong(new BigDecimal("-80.98765"));
+        mission.setDestinationLat(new BigDecimal("50.12345"));
+        mission.setDestinationLong(new BigDecimal("-90.98765"));
+        mission.setStatus(Status.ASSIGNED);
+        missionParameters = new HashMap<>();
+        missionParameters.put("Payload", mission);
+        missionParameters.put("processId", "100");
+
+        Incident incident = new Incident();
+        incident.setId("incident123");
+        incident.setStatus("Assigned");
+        incidentParameters = new HashMap<>();
+        incidentParameters.put("Payload", incident);
+    }
+
+    @Benchmark
+    public byte[] createMissionCommand() {
+        return CreateMissionCommandBuilder.builder(destination("CreateMissionCommand", "topic-mission-command"),
+                missionParameters).getData().toBytes();
+    }
+
+    @Benchmark
+    public byte[] setResponderUnavailableCommand() {
+        return SetResponderUnavailableCommandBuilder.builder(destination("SetResponderUnavailableCommand", "topic-responder-command"),
+                missionParameters).getData().toBytes();
+    }
+
+    @Benchmark
+    public byte[] updateResponderCommand() {
+        return UpdateResponderCommandBuilder.builder(destination("UpdateResponderCommand", "topic-responder-command"),
+                missionParameters).getData().toBytes();
+    }
+
+    @Benchmark
+    public byte[] updateIncidentCommand() {
+        return UpdateIncidentCommandBuilder.builder(destination("UpdateIncidentCommand", "topic-incident-command"),
+                incidentParameters).getData().toBytes();
+    }
+
+    @Benchmark
+    public byte[] incidentAssignmentEvent() {
+        return IncidentAssignmentEventBuilder.builder(destination("IncidentAssignmentEvent", "topic-incident-event"),
+                missionParameters).getData().toBytes();
+    }
+
+    private static Pair<String, String> destination(String messageType, String destination) {
+        return new ImmutablePair<>(messageType, destination);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CloudEventBuilderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+}
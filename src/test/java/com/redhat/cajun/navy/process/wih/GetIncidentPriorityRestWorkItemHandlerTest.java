@@ -1,8 +1,11 @@
 package com.redhat.cajun.navy.process.wih;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
@@ -11,16 +14,26 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.redhat.cajun.navy.rules.model.Incident;
 import com.redhat.cajun.navy.rules.model.IncidentPriority;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,6 +44,8 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
 
 public class GetIncidentPriorityRestWorkItemHandlerTest {
 
@@ -43,6 +58,9 @@ public class GetIncidentPriorityRestWorkItemHandlerTest {
     @Mock
     private WorkItemManager workItemManager;
 
+    @Mock
+    private AsyncWorkItemExecutor asyncExecutor;
+
     @Captor
     private ArgumentCaptor<Map<String, Object>> resultsCaptor;
 
@@ -52,12 +70,18 @@ public class GetIncidentPriorityRestWorkItemHandlerTest {
     public void beforeTest() {
         initMocks(this);
         wih = new GetIncidentPriorityRestWorkItemHandler();
+        ReflectionTestUtils.setField(wih, null, new RestTemplate(), RestTemplate.class);
         ReflectionTestUtils.setField(wih, "serviceScheme", "http", null);
         ReflectionTestUtils.setField(wih, "serviceUrl", "localhost:" + wireMockRule.port(), null);
         ReflectionTestUtils.setField(wih, "incidentPriorityPath", "/priority/{incidentId}", null);
         when(workItem.getId()).thenReturn(1L);
     }
 
+    @After
+    public void afterTest() {
+        wih.destroy();
+    }
+
 
     @Test
     public void testWorkItemHandler() throws Exception {
@@ -88,5 +112,192 @@ public class GetIncidentPriorityRestWorkItemHandlerTest {
         assertThat(incidentPriority.getIncidents(), equalTo(new BigDecimal(3)));
     }
 
+    @Test
+    public void testBatchedIncidentPriorities() throws Exception {
+        String body = "[" + priority("incident1", 1) + "," + priority("incident2", 2) + "," + priority("incident3", 3) + "]";
+        stubFor(post(urlEqualTo("/priority/bulk")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json").withBody(body)));
+
+        List<IncidentPriority> priorities = lookupConcurrently("incident1", "incident2", "incident3");
+
+        verify(exactly(1), postRequestedFor(urlEqualTo("/priority/bulk")));
+        verify(exactly(0), getRequestedFor(urlEqualTo("/priority/incident1")));
+        assertThat(priorities.get(0).getIncidentId(), equalTo("incident1"));
+        assertThat(priorities.get(0).getPriority(), equalTo(new BigDecimal(1)));
+        assertThat(priorities.get(1).getPriority(), equalTo(new BigDecimal(2)));
+        assertThat(priorities.get(2).getPriority(), equalTo(new BigDecimal(3)));
+    }
+
+    @Test
+    public void testBatchedIncidentPrioritiesWithoutBulkEndpoint() throws Exception {
+        stubFor(post(urlEqualTo("/priority/bulk")).willReturn(aResponse().withStatus(404)));
+        stubFor(get(urlEqualTo("/priority/incident1")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json").withBody(priority("incident1", 1))));
+        stubFor(get(urlEqualTo("/priority/incident2")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json").withBody(priority("incident2", 2))));
+
+        List<IncidentPriority> priorities = lookupConcurrently("incident1", "incident2", "incident3");
+
+        verify(exactly(1), postRequestedFor(urlEqualTo("/priority/bulk")));
+        verify(exactly(1), getRequestedFor(urlEqualTo("/priority/incident1")));
+        verify(exactly(1), getRequestedFor(urlEqualTo("/priority/incident2")));
+        assertThat(priorities.get(0).getPriority(), equalTo(new BigDecimal(1)));
+        assertThat(priorities.get(1).getPriority(), equalTo(new BigDecimal(2)));
+        assertThat(priorities.get(2).getIncidentId(), equalTo("incident3"));
+        assertThat(priorities.get(2).getPriority(), equalTo(new BigDecimal(0)));
+    }
+
+    @Test
+    public void testBulkEndpointIsProbedAgainAfterInterval() throws Exception {
+        stubFor(post(urlEqualTo("/priority/bulk")).willReturn(aResponse().withStatus(404)));
+        stubFor(get(urlEqualTo("/priority/incident1")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json").withBody(priority("incident1", 1))));
+        ReflectionTestUtils.setField(wih, "bulkReprobeInterval", 0L, null);
+
+        lookupConcurrently("incident1");
+        lookupConcurrently("incident1");
+
+        verify(exactly(2), postRequestedFor(urlEqualTo("/priority/bulk")));
+    }
+
+    @Test
+    public void testBulkEndpointIsNotProbedDuringInterval() throws Exception {
+        stubFor(post(urlEqualTo("/priority/bulk")).willReturn(aResponse().withStatus(404)));
+        stubFor(get(urlEqualTo("/priority/incident1")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json").withBody(priority("incident1", 1))));
+        ReflectionTestUtils.setField(wih, "bulkReprobeInterval", 60000L, null);
+
+        lookupConcurrently("incident1");
+        lookupConcurrently("incident1");
+
+        verify(exactly(1), postRequestedFor(urlEqualTo("/priority/bulk")));
+        verify(exactly(2), getRequestedFor(urlEqualTo("/priority/incident1")));
+    }
+
+    @Test
+    public void testBatchedLookupMapsErrorsLikeSingleLookup() throws Exception {
+        stubFor(post(urlEqualTo("/priority/bulk")).willReturn(aResponse().withStatus(400)));
+
+        List<IncidentPriority> priorities = lookupConcurrently("incident1");
+        assertThat(priorities.get(0).getPriority(), equalTo(new BigDecimal(0)));
+
+        stubFor(post(urlEqualTo("/priority/bulk")).willReturn(aResponse().withStatus(503)));
+        Incident incident = new Incident();
+        incident.setId("incident1");
+        try {
+            wih.getIncidentPriority(incident);
+            fail("Expected HttpServerErrorException");
+        } catch (HttpServerErrorException e) {
+            assertThat(e.getRawStatusCode(), equalTo(503));
+        }
+    }
+
+    @Test
+    public void testFailedLookupOnlyFailsItsIncidentInBatch() throws Exception {
+        stubFor(post(urlEqualTo("/priority/bulk")).willReturn(aResponse().withStatus(404)));
+        stubFor(get(urlEqualTo("/priority/incident1")).willReturn(aResponse().withStatus(503)));
+        stubFor(get(urlEqualTo("/priority/incident2")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json").withBody(priority("incident2", 2))));
+        initBatcher();
+        Incident incident1 = new Incident();
+        incident1.setId("incident1");
+        Incident incident2 = new Incident();
+        incident2.setId("incident2");
 
+        CompletableFuture<IncidentPriority> priority1 = wih.incidentPriority(incident1);
+        CompletableFuture<IncidentPriority> priority2 = wih.incidentPriority(incident2);
+
+        assertThat(priority2.get(10, TimeUnit.SECONDS).getPriority(), equalTo(new BigDecimal(2)));
+        try {
+            priority1.get(10, TimeUnit.SECONDS);
+            fail("Expected HttpServerErrorException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause() instanceof HttpServerErrorException, is(true));
+        }
+    }
+
+    @Test
+    public void testBatchedLookupFallsBackToDefaultOnTimeout() throws Exception {
+        stubFor(post(urlEqualTo("/priority/bulk")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json")
+                        .withBody("[" + priority("incident1", 1) + "]").withFixedDelay(2000)));
+        initBatcher();
+        ReflectionTestUtils.setField(wih, "batchTimeout", 500L, null);
+        Incident incident = new Incident();
+        incident.setId("incident1");
+
+        IncidentPriority incidentPriority = wih.getIncidentPriority(incident);
+
+        assertThat(incidentPriority.getIncidentId(), equalTo("incident1"));
+        assertThat(incidentPriority.getPriority(), equalTo(new BigDecimal(0)));
+    }
+
+    @Test
+    public void testSingleLookupFailsOnServerError() {
+        stubFor(get(urlEqualTo("/priority/incident1")).willReturn(aResponse().withStatus(503)));
+        Incident incident = new Incident();
+        incident.setId("incident1");
+        try {
+            wih.getIncidentPriority(incident);
+            fail("Expected HttpServerErrorException");
+        } catch (HttpServerErrorException e) {
+            assertThat(e.getRawStatusCode(), equalTo(503));
+        }
+    }
+
+    @Test
+    public void testBatchedWorkItemIsCompletedFromBatchCallback() throws Exception {
+        stubFor(post(urlEqualTo("/priority/bulk")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json").withBody("[" + priority("incident1", 1) + "]")));
+        initBatcher();
+        ReflectionTestUtils.setField(wih, "asyncExecutor", asyncExecutor, null);
+        Incident incident = new Incident();
+        incident.setId("incident1");
+        when(workItem.getParameter("Incident")).thenReturn(incident);
+
+        wih.executeWorkItem(workItem, workItemManager);
+
+        Mockito.verify(asyncExecutor).execute(workItem, workItemManager, wih);
+        Map<String, Object> results = wih.lookup(workItem).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        IncidentPriority incidentPriority = (IncidentPriority) results.get("IncidentPriority");
+        assertThat(incidentPriority.getPriority(), equalTo(new BigDecimal(1)));
+        verify(exactly(1), postRequestedFor(urlEqualTo("/priority/bulk")));
+    }
+
+    private void initBatcher() {
+        ReflectionTestUtils.setField(wih, "bulkPriorityPath", "/priority/bulk", null);
+        ReflectionTestUtils.setField(wih, "batchMaxSize", 50, null);
+        ReflectionTestUtils.setField(wih, "batchWindow", 200L, null);
+        ReflectionTestUtils.setField(wih, "batchThreads", 1, null);
+        ReflectionTestUtils.setField(wih, "batchTimeout", 5000L, null);
+        wih.init();
+    }
+
+    private List<IncidentPriority> lookupConcurrently(String... incidentIds) throws Exception {
+        if (ReflectionTestUtils.getField(wih, "batcher") == null) {
+            initBatcher();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(incidentIds.length);
+        try {
+            List<Future<IncidentPriority>> futures = new ArrayList<>();
+            for (String incidentId : incidentIds) {
+                Incident incident = new Incident();
+                incident.setId(incidentId);
+                futures.add(executor.submit(() -> wih.getIncidentPriority(incident)));
+            }
+            List<IncidentPriority> priorities = new ArrayList<>();
+            for (Future<IncidentPriority> future : futures) {
+                priorities.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return priorities;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String priority(String incidentId, int priority) {
+        return "{" + "\"incidentId\": \"" + incidentId + "\"," + "\"priority\": " + priority + ","
+                + "\"average\": 2.5," + "\"incidents\": 3" + "}";
+    }
 }
@@ -37,6 +37,7 @@ import org.kie.api.runtime.process.WorkItemManager;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
+import org.springframework.web.client.RestTemplate;
 
 public class GetRespondersRestWorkItemHandlerTest {
 
@@ -58,6 +59,7 @@ public class GetRespondersRestWorkItemHandlerTest {
     public void beforeTest() {
         initMocks(this);
         wih = new GetRespondersRestWorkItemHandler();
+        setField(wih, null, new RestTemplate(), RestTemplate.class);
         setField(wih, "responderServiceScheme", "http", null);
         setField(wih, "responderServiceUrl", "localhost:" + wireMockRule.port(), null);
         setField(wih, "availableRespondersPath", "/responders/available", null);
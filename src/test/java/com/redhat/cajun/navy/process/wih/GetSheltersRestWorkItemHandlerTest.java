@@ -1,16 +1,19 @@
 package com.redhat.cajun.navy.process.wih;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -22,6 +25,7 @@ import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.util.Map;
 
+import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.redhat.cajun.navy.rules.model.Destination;
 import com.redhat.cajun.navy.rules.model.Destinations;
@@ -34,6 +38,8 @@ import org.kie.api.runtime.process.WorkItemManager;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
 
 public class GetSheltersRestWorkItemHandlerTest {
 
@@ -55,6 +61,7 @@ public class GetSheltersRestWorkItemHandlerTest {
     public void init() {
         initMocks(this);
         wih = new GetSheltersRestWorkItemHandler();
+        setField(wih, null, new RestTemplate(), RestTemplate.class);
         setField(wih, "disasterServiceScheme", "http", null);
         setField(wih, "disasterServiceUrl", "localhost:" + wireMockRule.port(), null);
         setField(wih, "sheltersPath", "/shelters", null);
@@ -92,4 +99,75 @@ public class GetSheltersRestWorkItemHandlerTest {
         assertThat(destination3.getLatitude(), equalTo(new BigDecimal("34.05830")));
         assertThat(destination3.getLongitude(), equalTo(new BigDecimal("-77.88849")));
     }
+
+    @Test
+    public void testServesCachedShelters() throws Exception {
+        setField(wih, "cacheTtl", 60000L, null);
+        stubFor(get(urlEqualTo("/shelters")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json")
+                        .withBody(sheltersResponse())));
+
+        Destinations destinations1 = wih.getShelters();
+        Destinations destinations2 = wih.getShelters();
+        verify(exactly(1), getRequestedFor(urlEqualTo("/shelters")));
+        assertThat(destinations1.getDestinations().size(), equalTo(3));
+        assertThat(destinations2.getDestinations().size(), equalTo(3));
+    }
+
+    @Test
+    public void testConditionalGetNotModified() throws Exception {
+        stubFor(get(urlEqualTo("/shelters")).willReturn(
+                aResponse().withStatus(200).withHeader("Content-type", "application/json")
+                        .withHeader("ETag", "\"v1\"")
+                        .withBody(sheltersResponse())));
+        stubFor(get(urlEqualTo("/shelters")).withHeader("If-None-Match", WireMock.equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304).withHeader("ETag", "\"v1\"")));
+
+        wih.getShelters();
+        Destinations destinations = wih.getShelters();
+        verify(exactly(1), getRequestedFor(urlEqualTo("/shelters")).withHeader("If-None-Match", WireMock.equalTo("\"v1\"")));
+        assertThat(destinations.getDestinations().size(), equalTo(3));
+    }
+
+    @Test
+    public void testServesStaleSheltersWhenDisasterServiceFails() throws Exception {
+        stubFor(get(urlEqualTo("/shelters")).inScenario("shelters").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withStatus(200).withHeader("Content-type", "application/json")
+                        .withBody(sheltersResponse()))
+                .willSetStateTo("failing"));
+        stubFor(get(urlEqualTo("/shelters")).inScenario("shelters").whenScenarioStateIs("failing")
+                .willReturn(aResponse().withStatus(503)));
+
+        wih.getShelters();
+        Destinations destinations = wih.getShelters();
+        verify(exactly(2), getRequestedFor(urlEqualTo("/shelters")));
+        assertThat(destinations.getDestinations().size(), equalTo(3));
+    }
+
+    @Test
+    public void testNoSheltersWhenDisasterServiceRejectsRequest() {
+        stubFor(get(urlEqualTo("/shelters")).willReturn(aResponse().withStatus(404)));
+
+        Destinations destinations = wih.getShelters();
+        verify(exactly(1), getRequestedFor(urlEqualTo("/shelters")));
+        assertThat(destinations, notNullValue());
+    }
+
+    @Test
+    public void testDisasterServiceErrorIsThrownWithoutCachedShelters() {
+        stubFor(get(urlEqualTo("/shelters")).willReturn(aResponse().withStatus(503)));
+
+        try {
+            wih.getShelters();
+            fail();
+        } catch (HttpServerErrorException e) {
+            assertThat(e.getRawStatusCode(), equalTo(503));
+        }
+    }
+
+    private String sheltersResponse() throws Exception {
+        InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream("disaster-service-response.json");
+        assert is != null;
+        return IOUtils.toString(is, Charset.defaultCharset());
+    }
 }
@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.redhat.cajun.navy.process.message.codec.CloudEventPayloadCodec;
 import com.redhat.cajun.navy.process.message.model.CloudEventBuilder;
 import com.redhat.cajun.navy.process.message.model.CreateMissionCommand;
 import com.redhat.cajun.navy.process.message.model.IncidentAssignmentEvent;
@@ -89,6 +90,31 @@ public class KafkaMessageSenderWorkItemHandlerTest {
         verify(outboxEventEmitter).emitCloudEvent(any(CloudEvent.class));
     }
 
+    @Test
+    public void testExecuteWorkItemWithBinaryFormatDestination() {
+        setField(wih, null, new CloudEventPayloadCodec(), CloudEventPayloadCodec.class);
+        setField(wih, "binaryFormatDestinations", "topic-mission-command", String.class);
+        setField(wih, "binaryContentType", "application/avro", String.class);
+        wih.init();
+
+        Mission mission = new Mission();
+        mission.setIncidentId("incident123");
+        mission.setResponderId("responder123");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("MessageType", "CreateMission");
+        parameters.put("Payload", mission);
+        when(workItem.getParameters()).thenReturn(parameters);
+        when(workItem.getId()).thenReturn(1L);
+        when(workItem.getProcessInstanceId()).thenReturn(100L);
+
+        wih.executeWorkItem(workItem, workItemManager);
+        verify(outboxEventEmitter).emitCloudEvent(cloudEventCaptor.capture());
+        CloudEvent cloudEvent = cloudEventCaptor.getValue();
+        assertThat(cloudEvent.getType(), equalTo("CreateMissionCommand"));
+        assertThat(cloudEvent.getDataContentType(), equalTo("application/avro"));
+        assertThat(cloudEvent.getData().toBytes().length > 0, is(true));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testCreateMissionCommandMessageType() {
@@ -108,6 +134,7 @@ public class KafkaMessageSenderWorkItemHandlerTest {
         parameters.put("Payload", mission);
         when(workItem.getParameters()).thenReturn(parameters);
         when(workItem.getId()).thenReturn(1L);
+        when(workItem.getProcessInstanceId()).thenReturn(100L);
 
         wih.executeWorkItem(workItem, workItemManager);
         verify(workItemManager).completeWorkItem(eq(1L), anyMap());
@@ -118,9 +145,10 @@ public class KafkaMessageSenderWorkItemHandlerTest {
         assertThat(cloudEvent.getSource().toString(), equalTo("emergency-response/process-service"));
         assertThat(cloudEvent.getSpecVersion().toString(), equalTo("1.0"));
         assertThat(cloudEvent.getTime(), notNullValue());
-        assertThat(cloudEvent.getExtensionNames().size(), equalTo(2));
+        assertThat(cloudEvent.getExtensionNames().size(), equalTo(3));
         assertThat(cloudEvent.getExtension("aggregatetype"), equalTo("topic-mission-command"));
         assertThat(cloudEvent.getExtension("aggregateid"), equalTo("incident123"));
+        assertThat(cloudEvent.getExtension("processid"), equalTo("100"));
         assertThat(cloudEvent.getData(), notNullValue());
         assertThat(cloudEvent.getData(), is(instanceOf(PojoCloudEventData.class)));
         PojoCloudEventData<CreateMissionCommand> cloudEventData = (PojoCloudEventData<CreateMissionCommand>) cloudEvent.getData();
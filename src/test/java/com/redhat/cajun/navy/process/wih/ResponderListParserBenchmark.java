@@ -0,0 +1,92 @@
+package com.redhat.cajun.navy.process.wih;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cajun.navy.rules.model.Responder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponderListParserBenchmark {
+
+    @Param({"100", "1000"})
+    private int responders;
+
+    private ObjectMapper objectMapper;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < responders; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("{\"id\":").append(i)
+                    .append(",\"name\":\"Responder ").append(i).append("\"")
+                    .append(",\"phoneNumber\":\"111-222-").append(i).append("\"")
+                    .append(",\"latitude\":34.").append(10000 + i)
+                    .append(",\"longitude\":-77.").append(10000 + i)
+                    .append(",\"boatCapacity\":").append(i % 12)
+                    .append(",\"medicalKit\":").append(i % 2 == 0)
+                    .append(",\"available\":true")
+                    .append(",\"person\":").append(i % 3 == 0)
+                    .append(",\"enrolled\":true}");
+        }
+        body = sb.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Responder> databindAndMap() throws Exception {
+        List<GetRespondersRestWorkItemHandler.Responder> list = objectMapper.readValue(body,
+                new TypeReference<List<GetRespondersRestWorkItemHandler.Responder>>() {});
+        return list.stream().map(r -> {
+            Responder responder = new Responder();
+            responder.setId(Long.toString(r.getId()));
+            responder.setFullname(r.getName());
+            responder.setPhoneNumber(r.getPhoneNumber());
+            responder.setLatitude(r.getLatitude());
+            responder.setLongitude(r.getLongitude());
+            responder.setBoatCapacity(r.getBoatCapacity());
+            responder.setHasMedical(r.isMedicalKit());
+            responder.setPerson(r.isPerson());
+            return responder;
+        }).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Responder> streaming() throws Exception {
+        return ResponderListParser.parse(body, true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResponderListParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+}
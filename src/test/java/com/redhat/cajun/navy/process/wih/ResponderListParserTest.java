@@ -0,0 +1,56 @@
+package com.redhat.cajun.navy.process.wih;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.redhat.cajun.navy.rules.model.Responder;
+import org.junit.Test;
+
+public class ResponderListParserTest {
+
+    private final String json = "[" +
+            "{\"id\":1,\"name\":\"John Doe\",\"phoneNumber\":\"111-222-333\",\"latitude\":30.12345,\"longitude\":-70.98765," +
+            "\"boatCapacity\":3,\"medicalKit\":true,\"available\":true,\"person\":false,\"enrolled\":true," +
+            "\"tags\":{\"nested\":[1,2,{\"id\":99}]}}," +
+            "{\"id\":2,\"name\":\"John Foo\",\"phoneNumber\":null,\"latitude\":\"35.12345\",\"longitude\":\"-75.98765\"," +
+            "\"boatCapacity\":2,\"medicalKit\":false,\"available\":false,\"person\":true}" +
+            "]";
+
+    @Test
+    public void testParse() throws Exception {
+        List<Responder> responders = ResponderListParser.parse(json.getBytes(), false);
+        assertThat(responders.size(), equalTo(2));
+        Responder responder1 = responders.get(0);
+        assertThat(responder1.getId(), equalTo("1"));
+        assertThat(responder1.getFullname(), equalTo("John Doe"));
+        assertThat(responder1.getPhoneNumber(), equalTo("111-222-333"));
+        assertThat(responder1.getLatitude(), equalTo(new BigDecimal("30.12345")));
+        assertThat(responder1.getLongitude(), equalTo(new BigDecimal("-70.98765")));
+        assertThat(responder1.getBoatCapacity(), equalTo(3));
+        assertThat(responder1.getHasMedical(), is(true));
+        assertThat(responder1.getPerson(), is(false));
+        Responder responder2 = responders.get(1);
+        assertThat(responder2.getId(), equalTo("2"));
+        assertThat(responder2.getPhoneNumber(), nullValue());
+        assertThat(responder2.getLatitude(), equalTo(new BigDecimal("35.12345")));
+        assertThat(responder2.getLongitude(), equalTo(new BigDecimal("-75.98765")));
+    }
+
+    @Test
+    public void testParseSkipsUnavailableResponders() throws Exception {
+        List<Responder> responders = ResponderListParser.parse(json.getBytes(), true);
+        assertThat(responders.size(), equalTo(1));
+        assertThat(responders.get(0).getId(), equalTo("1"));
+    }
+
+    @Test
+    public void testParseEmptyBody() throws Exception {
+        assertThat(ResponderListParser.parse(new byte[0], true).size(), equalTo(0));
+        assertThat(ResponderListParser.parse("[]".getBytes(), true).size(), equalTo(0));
+    }
+}